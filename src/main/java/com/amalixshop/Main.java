@@ -1,5 +1,13 @@
 package com.amalixshop;
 
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.database.DatabaseConnection;
+import com.amalixshop.database.MigrationRunner;
+import com.amalixshop.services.CatalogChangeFeed;
+import com.amalixshop.services.ProductSearchService;
+import com.amalixshop.services.WarmupService;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.AppLogger;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -7,18 +15,34 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 import java.net.URL;
+import java.sql.SQLException;
 
 public class Main extends Application {
+    private static final AppLogger LOG = AppLogger.getLogger(Main.class);
+
+    @Override
+    public void init() throws SQLException {
+        // Bring the schema up to date before any screen touches the database
+        if (Boolean.parseBoolean(DatabaseConfig.get("DB_MIGRATE_ON_STARTUP"))) {
+            try {
+                MigrationRunner.migrate();
+            } catch (SQLException e) {
+                // Rethrown so launch() fails: don't run against a half-migrated schema
+                LOG.error("Schema migration failed, not starting: {}", e.getMessage());
+                throw e;
+            }
+        }
+    }
 
     @Override
     public void start(Stage stage) throws Exception {
-        System.out.println("Starting AmaliXShop...");
+        LOG.info("Starting AmaliXShop...");
 
         // Start with login screen by default
         URL fxmlUrl = getClass().getClassLoader().getResource("com/amalixshop/LoginView.fxml");
 
         if (fxmlUrl == null) {
-            System.err.println("ERROR: FXML file not found!");
+            LOG.error("ERROR: FXML file not found!");
             return;
         }
 
@@ -32,7 +56,22 @@ public class Main extends Application {
         stage.setScene(scene);
         stage.show();
 
-        System.out.println("Application started successfully!");
+        // Get the dashboard ready while the user is logging in
+        WarmupService.getInstance().start();
+        // Product and stock changes from any client, applied as they commit
+        CatalogChangeFeed.getInstance().start();
+
+        LOG.info("Application started successfully!");
+    }
+
+    @Override
+    public void stop() {
+        CatalogChangeFeed.getInstance().stop();
+        // Changes the feed applied since startup, so the next start has less to fetch
+        ProductSearchService.getShared().saveSnapshot();
+        AsyncUtil.shutdown();
+        DatabaseConnection.shutdown();
+        AppLogger.shutdown();
     }
 
     static void main(String[] args) {
@@ -1,6 +1,8 @@
 package com.amalixshop.config;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DatabaseConfig {
@@ -15,6 +17,64 @@ public class DatabaseConfig {
         config.put("DB_URL", "jdbc:postgresql://localhost:5432/amalixshop");
         config.put("DB_USER", "postgres");
         config.put("DB_PASSWORD", "Final@2025");
+
+        // Read replicas: comma-separated JDBC URLs, same credentials as the primary
+        config.put("DB_REPLICA_URLS", "");
+        config.put("DB_REPLICA_MAX_LAG_MS", "2000");
+        config.put("DB_REPLICA_CHECK_MS", "1000");
+        config.put("DB_READ_YOUR_WRITES", "true");
+
+        // Connection pool
+        config.put("DB_POOL_MAX_SIZE", "10");
+        config.put("DB_POOL_MIN_IDLE", "2");
+        config.put("DB_POOL_MAX_LIFETIME_MS", "1800000");     // 30 min
+        config.put("DB_POOL_IDLE_TIMEOUT_MS", "600000");      // 10 min
+        config.put("DB_POOL_ACQUIRE_TIMEOUT_MS", "5000");
+        config.put("DB_POOL_VALIDATION_TIMEOUT_S", "2");
+        config.put("DB_POOL_VALIDATE_AFTER_IDLE_MS", "5000"); // skip isValid() for recently used connections
+        config.put("DB_POOL_LEAK_THRESHOLD_MS", "30000");
+        config.put("DB_POOL_HOUSEKEEPING_MS", "10000");
+
+        // Prepared statements
+        config.put("DB_STATEMENT_CACHE_SIZE", "64");          // per connection, 0 disables
+        config.put("DB_PREPARE_THRESHOLD", "1");              // use a server-side prepare from the first execution
+
+        // Full-table reads (StreamingQuery): rows per round trip through a server-side cursor
+        config.put("DB_STREAM_FETCH_SIZE", "1000");
+
+        // Typo-tolerant search, used when a product search finds nothing
+        config.put("DB_FUZZY_SEARCH_THRESHOLD", "0.5");       // pg_trgm word similarity, 0-1; lower finds more
+        config.put("DB_FUZZY_SEARCH_LIMIT", "50");
+
+        // Full products by id (ProductDAO.getProductById); writes through the DAOs evict them
+        config.put("DB_PRODUCT_CACHE_SIZE", "1000");          // 0 disables
+        config.put("DB_PRODUCT_CACHE_TTL_MS", "60000");
+
+        // Dashboard filter counts (CategoryService.getFacets), cached per search
+        config.put("DB_FACET_CACHE_SIZE", "100");             // 0 disables
+        config.put("DB_FACET_CACHE_TTL_MS", "30000");
+
+        // Local copy of the search catalog, read at startup (ProductSearchService.warmStart); empty disables
+        config.put("DB_CATALOG_SNAPSHOT", "cache/catalog.snapshot");
+        // Days a snapshot's version keeps deletion tombstones; an older snapshot reloads in full
+        config.put("DB_CATALOG_SYNC_RETENTION_DAYS", "30");
+
+        // Catalog change feed (LISTEN catalog_changes, see V7 migration)
+        config.put("DB_CHANGE_FEED", "true");
+        config.put("DB_CHANGE_FEED_POLL_MS", "500");
+        config.put("DB_CHANGE_FEED_RETRY_MS", "5000");
+        config.put("DB_CHANGE_FEED_MAX_BATCH", "500");        // more changed products than this: reload instead
+
+        // Query metrics and slow-query log
+        config.put("DB_QUERY_METRICS", "true");
+        config.put("DB_SLOW_QUERY_MS", "250");                // 0 disables the slow-query log
+        config.put("DB_SLOW_QUERY_LOG", "logs/slow-queries.log");
+
+        // Schema migrations (src/main/resources/db/migration)
+        config.put("DB_MIGRATE_ON_STARTUP", "true");
+
+        // Any key can be overridden with -D<KEY>=value
+        config.replaceAll((key, value) -> System.getProperty(key, value));
     }
 
     public static String getUrl() {
@@ -28,4 +88,26 @@ public class DatabaseConfig {
     public static String getPassword() {
         return config.get("DB_PASSWORD");
     }
+
+    public static List<String> getReplicaUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : config.get("DB_REPLICA_URLS").split(",")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+
+    public static String get(String key) {
+        return config.get(key);
+    }
+
+    public static int getInt(String key) {
+        return Integer.parseInt(config.get(key));
+    }
+
+    public static long getLong(String key) {
+        return Long.parseLong(config.get(key));
+    }
 }
@@ -0,0 +1,37 @@
+package com.amalixshop.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class LogConfig {
+    private static final Map<String, String> config;
+
+    static {
+        config = new HashMap<>();
+        loadConfig();
+    }
+
+    public static void loadConfig() {
+        config.put("LOG_LEVEL", "INFO");                      // DEBUG, INFO, WARN, ERROR
+        config.put("LOG_FILE", "logs/amalixshop.log");
+        config.put("LOG_MAX_FILE_BYTES", "10485760");         // roll at 10 MB
+        config.put("LOG_MAX_FILES", "5");                     // amalixshop.log.1 .. .5
+        config.put("LOG_CONSOLE", "true");                    // also echo to the console (from the writer thread)
+        config.put("LOG_BUFFER_SIZE", "8192");                // ring buffer slots, rounded up to a power of two
+
+        // Any key can be overridden with -D<KEY>=value
+        config.replaceAll((key, value) -> System.getProperty(key, value));
+    }
+
+    public static String get(String key) {
+        return config.get(key);
+    }
+
+    public static int getInt(String key) {
+        return Integer.parseInt(config.get(key));
+    }
+
+    public static long getLong(String key) {
+        return Long.parseLong(config.get(key));
+    }
+}
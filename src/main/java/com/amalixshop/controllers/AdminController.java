@@ -1,10 +1,14 @@
 package com.amalixshop.controllers;
 
+import com.amalixshop.database.QueryMetrics;
+import com.amalixshop.models.ImportResult;
 import com.amalixshop.models.Product;
 import com.amalixshop.models.Category;
+import com.amalixshop.services.ProductExportService;
+import com.amalixshop.services.ProductImportService;
 import com.amalixshop.services.ProductService;
 import com.amalixshop.services.CategoryService;
-import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.utils.AsyncUtil;
 import com.amalixshop.utils.NavigationUtil;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -13,8 +17,10 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.net.URL;
 import java.util.ResourceBundle;
 
@@ -24,6 +30,8 @@ public class AdminController implements Initializable {
 
     private final ProductService productService = new ProductService();
     private final CategoryService categoryService = new CategoryService();
+    private final ProductImportService productImportService = new ProductImportService();
+    private final ProductExportService productExportService = new ProductExportService();
 
     // ========== CATEGORY TAB FIELDS ==========
     @FXML private TextField categoryNameField;
@@ -37,6 +45,12 @@ public class AdminController implements Initializable {
     @FXML private ComboBox<Category> categoryComboBox;
     @FXML private TableView<Product> productsTable;
     @FXML private TextField stockField;
+    @FXML private Button importProductsButton;
+    @FXML private Button exportProductsButton;
+
+    // ========== PERFORMANCE TAB FIELDS ==========
+    @FXML private TableView<QueryMetrics.QueryStats> queryStatsTable;
+    @FXML private Label acquireStatsLabel;
 
     private ObservableList<Product> productsList = FXCollections.observableArrayList();
     private ObservableList<Category> categoriesList = FXCollections.observableArrayList();
@@ -50,13 +64,14 @@ public class AdminController implements Initializable {
         setupProductTable();
         setupCategoryComboBox();
         loadProducts();
+        loadQueryStats();
     }
 
     // ========== CATEGORY TAB METHODS ==========
 
     private void setupCategoryTable() {
         // Set up cell value factories
-        categoriesTable.getColumns().get(0).setCellValueFactory(new PropertyValueFactory<>("categoryId"));
+        categoriesTable.getColumns().get(0).setCellValueFactory(new PropertyValueFactory<>("categoryToken"));
         categoriesTable.getColumns().get(1).setCellValueFactory(new PropertyValueFactory<>("categoryName"));
         categoriesTable.getColumns().get(2).setCellValueFactory(new PropertyValueFactory<>("description"));
 
@@ -81,17 +96,19 @@ public class AdminController implements Initializable {
 
 
     private void loadCategories() {
-        categoriesList.setAll(categoryService.getAllCategories());
         categoriesTable.setItems(categoriesList);
+        AsyncUtil.onFxThread(categoryService.getAllCategoriesAsync(), categoriesList::setAll,
+                error -> showError("Error", "Failed to load categories: " + error.getMessage()));
     }
 
     private void loadProducts() {
-        productsList.setAll(productService.getAllProducts());
         productsTable.setItems(productsList);
+        AsyncUtil.onFxThread(productService.getAllProductsAsync(), productsList::setAll,
+                error -> showError("Error", "Failed to load products: " + error.getMessage()));
     }
 
+    // The combo box shares categoriesList with the table, so one load fills both
     private void loadCategoriesIntoComboBox() {
-        categoriesList.setAll(categoryService.getAllCategories());
         categoryComboBox.setItems(categoriesList);
     }
 
@@ -217,7 +234,7 @@ public class AdminController implements Initializable {
 
     private void setupProductTable() {
         // Will be implemented later
-        productsTable.getColumns().get(0).setCellValueFactory(new PropertyValueFactory<>("productId"));
+        productsTable.getColumns().get(0).setCellValueFactory(new PropertyValueFactory<>("productToken"));
         productsTable.getColumns().get(1).setCellValueFactory(new PropertyValueFactory<>("productName"));
         productsTable.getColumns().get(3).setCellValueFactory(new PropertyValueFactory<>("description"));
         productsTable.getColumns().get(2).setCellValueFactory(new PropertyValueFactory<>("categoryName"));
@@ -246,7 +263,7 @@ public class AdminController implements Initializable {
 
         // Set category
         for (Category category : categoriesList) {
-            if (category.getCategoryId().equals(product.getCategoryId())) {
+            if (category.getCategoryId() == product.getCategoryId()) {
                 categoryComboBox.getSelectionModel().select(category);
                 break;
             }
@@ -368,9 +385,7 @@ public class AdminController implements Initializable {
         if (!confirmed) return;
 
         try {
-            boolean success = productService.deleteProduct(
-                    EncryptionUtil.decrypt(selectedProduct.getProductId())
-            );
+            boolean success = productService.deleteProduct(selectedProduct.getProductId());
 
             if (success) {
                 showSuccess("Deleted", "Product deleted successfully.");
@@ -401,6 +416,102 @@ public class AdminController implements Initializable {
         selectedProduct = null;
     }
 
+    @FXML
+    private void handleImportProducts() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Products");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(productsTable.getScene().getWindow());
+        if (file == null) return;
+
+        importProductsButton.setDisable(true);
+        AsyncUtil.onFxThread(productImportService.importCsvAsync(file.toPath()),
+                result -> {
+                    importProductsButton.setDisable(false);
+                    showImportResult(result);
+                    loadProducts();
+                },
+                error -> {
+                    importProductsButton.setDisable(false);
+                    showError("Import Failed", error.getMessage());
+                });
+    }
+
+    @FXML
+    private void handleExportProducts() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Products");
+        chooser.setInitialFileName("products.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(productsTable.getScene().getWindow());
+        if (file == null) return;
+
+        exportProductsButton.setDisable(true);
+        AsyncUtil.onFxThread(productExportService.exportCsvAsync(file.toPath()),
+                rows -> {
+                    exportProductsButton.setDisable(false);
+                    showSuccess("Export Complete", rows + " products written to " + file.getName() + ".");
+                },
+                error -> {
+                    exportProductsButton.setDisable(false);
+                    showError("Export Failed", error.getMessage());
+                });
+    }
+
+    private void showImportResult(ImportResult result) {
+        if (!result.isSuccessful()) {
+            showError("Import Failed", "Nothing was imported.\n\n" + result.getFailure());
+            return;
+        }
+
+        StringBuilder message = new StringBuilder(String.format(
+                "%d rows read: %d added, %d updated, %d rejected (%.1f s).",
+                result.getTotalRows(), result.getInserted(), result.getUpdated(),
+                result.getRejected(), result.getElapsedMillis() / 1000.0));
+
+        if (result.getRejected() == 0) {
+            showSuccess("Import Complete", message.toString());
+            return;
+        }
+
+        // The dialog only has room for the first few; the full list is in the log
+        int shown = Math.min(10, result.getErrors().size());
+        message.append("\n");
+        for (int i = 0; i < shown; i++) {
+            message.append("\n").append(result.getErrors().get(i));
+        }
+        if (result.getRejected() > shown) {
+            message.append("\n... and ").append(result.getRejected() - shown).append(" more");
+        }
+        showWarning("Import Completed With Errors", message.toString());
+    }
+
+    // ========== PERFORMANCE TAB METHODS ==========
+
+    private void loadQueryStats() {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        queryStatsTable.getItems().setAll(metrics.snapshot());
+        acquireStatsLabel.setText(String.format(
+                "Connection acquire p50 %.2f ms, p95 %.2f ms, p99 %.2f ms  |  %d slow queries (over %d ms)",
+                metrics.getAcquireP50Millis(),
+                metrics.getAcquireP95Millis(),
+                metrics.getAcquireP99Millis(),
+                metrics.getSlowQueryCount(),
+                metrics.getSlowQueryThresholdMillis()
+        ));
+    }
+
+    @FXML
+    private void handleRefreshQueryStats() {
+        loadQueryStats();
+    }
+
+    @FXML
+    private void handleResetQueryStats() {
+        QueryMetrics.getInstance().reset();
+        loadQueryStats();
+    }
+
     // ========== NAVIGATION ==========
 
     @FXML
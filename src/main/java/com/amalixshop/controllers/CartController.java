@@ -8,14 +8,18 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import com.amalixshop.utils.AsyncUtil;
 import com.amalixshop.utils.NavigationUtil;
+import com.amalixshop.utils.AppLogger;
 import javafx.geometry.Pos;
 import javafx.scene.paint.Color;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class CartController {
+    private static final AppLogger LOG = AppLogger.getLogger(CartController.class);
 
     @FXML private VBox itemsContainer;
     @FXML private VBox cartSummary;
@@ -27,14 +31,16 @@ public class CartController {
     @FXML private Label shippingLabel;
     @FXML private Label totalLabel;
     @FXML private Button clearCartButton;
+    @FXML private Button checkoutButton;
 
     private String currentCustomerId;
     private final CartService cartService = new CartService();
     private Cart currentCart;
+    private CompletableFuture<Cart> cartLoad;
 
     @FXML
     private void initialize() {
-        System.out.println("CartController initialized");
+        LOG.debug("CartController initialized");
 
         // Initialize UI state
         messageLabel.setText("");
@@ -76,37 +82,43 @@ public class CartController {
                     "\n\nShipping to: " + info.getShippingAddress());
 
             if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-                try {
-                    // Create order from cart
-                    OrderService orderService = new OrderService();
-                    String orderId = orderService.createOrderFromCart(
-                            currentCustomerId,
-                            info.getShippingAddress(),
-                            info.getBillingAddress(),
-                            info.getPaymentMethod()
-                    );
-
-                    if (orderId != null) {
-                        showMessage("Order created successfully! Order ID: " + orderId);
-
-                        // Clear cart and refresh
-                        loadCartItems();
-
-                        // Navigate to order confirmation page
-                        Stage stage = (Stage) messageLabel.getScene().getWindow();
-                        NavigationUtil.navigateToOrderConfirmation(stage, currentCustomerId, orderId);
-                    } else {
-                        showError("Failed to create order. Please try again.");
-                    }
-                } catch (Exception e) {
-                    showError("Error during checkout: " + e.getMessage());
-                    System.err.println("Checkout error: " + e.getMessage());
-                    e.printStackTrace();
-                }
+                // Create order from cart
+                OrderService orderService = new OrderService();
+                showMessage("Placing order...");
+                setCheckingOut(true);
+                AsyncUtil.onFxThread(orderService.createOrderFromCartAsync(
+                                currentCustomerId,
+                                info.getShippingAddress(),
+                                info.getBillingAddress(),
+                                info.getPaymentMethod()),
+                        orderId -> {
+                            setCheckingOut(false);
+                            if (orderId != null) {
+                                showMessage("Order created successfully! Order ID: " + orderId);
+
+                                // Navigate to order confirmation page
+                                Stage stage = (Stage) messageLabel.getScene().getWindow();
+                                NavigationUtil.navigateToOrderConfirmation(stage, currentCustomerId, orderId);
+                            } else {
+                                showError("Failed to create order. Please try again.");
+                            }
+                        },
+                        error -> {
+                            setCheckingOut(false);
+                            showError("Error during checkout: " + error.getMessage());
+                            LOG.error("Checkout error: {}", error.getMessage(), error);
+                        });
             }
         }
     }
 
+    // While an order is being placed the cart can't be checked out again or changed
+    private void setCheckingOut(boolean checkingOut) {
+        checkoutButton.setDisable(checkingOut);
+        clearCartButton.setDisable(checkingOut);
+        itemsContainer.setDisable(checkingOut);
+    }
+
     @FXML
     private void handleClearCart() {
         if (currentCustomerId == null) {
@@ -120,71 +132,87 @@ public class CartController {
         alert.setContentText("Are you sure you want to remove all items from your cart?");
 
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            try {
-                boolean success = cartService.clearCart(currentCustomerId);
-
-                if (success) {
-                    loadCartItems();
-                    showMessage("Cart cleared successfully!");
-                } else {
-                    showError("Failed to clear cart");
-                }
-            } catch (Exception e) {
-                showError("Failed to clear cart: " + e.getMessage());
-                System.err.println("Error clearing cart: " + e.getMessage());
-            }
+            AsyncUtil.onFxThread(cartService.clearCartAsync(currentCustomerId),
+                    success -> {
+                        if (success) {
+                            loadCartItems();
+                            showMessage("Cart cleared successfully!");
+                        } else {
+                            showError("Failed to clear cart");
+                        }
+                    },
+                    error -> {
+                        showError("Failed to clear cart: " + error.getMessage());
+                        LOG.error("Error clearing cart: {}", error.getMessage());
+                    });
         }
     }
 
     public void setCurrentCustomerId(String customerId) {
         this.currentCustomerId = customerId;
-        System.out.println("Setting customer ID for cart: " + customerId);
+        LOG.debug("Setting customer ID for cart: {}", customerId);
         loadCartItems();
     }
 
     private void loadCartItems() {
-        itemsContainer.getChildren().clear();
+        AsyncUtil.cancel(cartLoad);
 
         if (currentCustomerId == null) {
+            itemsContainer.getChildren().clear();
             showEmptyCart();
             messageLabel.setText("Please login to view your cart");
             return;
         }
 
-        try {
-            currentCart = cartService.getOrCreateCart(currentCustomerId);
+        CompletableFuture<Cart> load = cartService.getOrCreateCartAsync(currentCustomerId);
+        cartLoad = load;
+        AsyncUtil.onFxThread(load,
+                cart -> {
+                    // A reload that replaced this one after it finished shows its own result
+                    if (cartLoad == load) {
+                        showCart(cart);
+                    }
+                },
+                error -> {
+                    if (cartLoad != load) {
+                        return;
+                    }
+                    itemsContainer.getChildren().clear();
+                    showError("Error loading cart: " + error.getMessage());
+                    LOG.error("Error loading cart: {}", error.getMessage());
+                    showEmptyCart();
+                });
+    }
 
-            if (currentCart == null) {
-                showError("Failed to load cart");
-                showEmptyCart();
-                return;
-            }
+    private void showCart(Cart cart) {
+        itemsContainer.getChildren().clear();
+        currentCart = cart;
 
-            List<CartItem> items = currentCart.getItems();
+        if (currentCart == null) {
+            showError("Failed to load cart");
+            showEmptyCart();
+            return;
+        }
 
-            if (items == null || items.isEmpty()) {
-                showEmptyCart();
-                return;
-            }
+        List<CartItem> items = currentCart.getItems();
 
-            // Update cart title with item count
-            int totalItems = items.stream().mapToInt(CartItem::getQuantity).sum();
-            cartTitleLabel.setText("Shopping Cart (" + totalItems + " items)");
+        if (items == null || items.isEmpty()) {
+            showEmptyCart();
+            return;
+        }
 
-            // Display cart items
-            displayCartItems(items);
+        // Update cart title with item count
+        int totalItems = items.stream().mapToInt(CartItem::getQuantity).sum();
+        cartTitleLabel.setText("Shopping Cart (" + totalItems + " items)");
 
-            // Update cart summary
-            updateCartSummary();
+        // Display cart items
+        displayCartItems(items);
 
-            // Show clear cart button
-            clearCartButton.setVisible(true);
+        // Update cart summary
+        updateCartSummary();
 
-        } catch (Exception e) {
-            showError("Error loading cart: " + e.getMessage());
-            System.err.println("Error loading cart: " + e.getMessage());
-            showEmptyCart();
-        }
+        // Show clear cart button
+        clearCartButton.setVisible(true);
     }
 
     private void displayCartItems(List<CartItem> items) {
@@ -286,7 +314,7 @@ public class CartController {
         return card;
     }
 
-    private void updateQuantity(String productId, int change) {
+    private void updateQuantity(int productId, int change) {
         if (currentCustomerId == null) {
             showError("Please login to update cart");
             return;
@@ -297,7 +325,7 @@ public class CartController {
             int currentQuantity = 0;
             if (currentCart != null && currentCart.getItems() != null) {
                 for (CartItem item : currentCart.getItems()) {
-                    if (item.getProductId().equals(productId)) {
+                    if (item.getProductId() == productId) {
                         currentQuantity = item.getQuantity();
                         break;
                     }
@@ -311,7 +339,7 @@ public class CartController {
                 String productName = "this item";
                 if (currentCart != null) {
                     for (CartItem item : currentCart.getItems()) {
-                        if (item.getProductId().equals(productId)) {
+                        if (item.getProductId() == productId) {
                             productName = item.getProductName();
                             break;
                         }
@@ -321,22 +349,23 @@ public class CartController {
                 return;
             }
 
-            boolean success = cartService.updateCartItemQuantity(currentCustomerId, productId, newQuantity);
-
-            if (success) {
-                loadCartItems(); // Refresh the entire cart
-                showMessage("Quantity updated");
-            } else {
-                showError("Failed to update quantity");
-            }
+            AsyncUtil.onFxThread(cartService.updateCartItemQuantityAsync(currentCustomerId, productId, newQuantity),
+                    success -> {
+                        if (success) {
+                            loadCartItems(); // Refresh the entire cart
+                            showMessage("Quantity updated");
+                        } else {
+                            showError("Failed to update quantity");
+                        }
+                    },
+                    error -> showError("Failed to update quantity: " + error.getMessage()));
         } catch (Exception e) {
             showError("Failed to update quantity: " + e.getMessage());
-            System.err.println("Error updating quantity: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating quantity: {}", e.getMessage(), e);
         }
     }
 
-    private void removeItem(String productId, String productName) {
+    private void removeItem(int productId, String productName) {
         if (currentCustomerId == null) {
             showError("Please login to modify cart");
             return;
@@ -348,19 +377,19 @@ public class CartController {
         alert.setContentText("Remove \"" + productName + "\" from your cart?");
 
         if (alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
-            try {
-                boolean success = cartService.removeFromCart(currentCustomerId, productId);
-
-                if (success) {
-                    loadCartItems(); // Refresh the cart
-                    showMessage(productName + " removed from cart");
-                } else {
-                    showError("Failed to remove item");
-                }
-            } catch (Exception e) {
-                showError("Failed to remove item: " + e.getMessage());
-                System.err.println("Error removing item: " + e.getMessage());
-            }
+            AsyncUtil.onFxThread(cartService.removeFromCartAsync(currentCustomerId, productId),
+                    success -> {
+                        if (success) {
+                            loadCartItems(); // Refresh the cart
+                            showMessage(productName + " removed from cart");
+                        } else {
+                            showError("Failed to remove item");
+                        }
+                    },
+                    error -> {
+                        showError("Failed to remove item: " + error.getMessage());
+                        LOG.error("Error removing item: {}", error.getMessage());
+                    });
         }
     }
 
@@ -369,30 +398,36 @@ public class CartController {
             return;
         }
 
-        try {
-            double cartTotal = cartService.getCartTotal(currentCustomerId);
-            int itemCount = cartService.getCartItemCount(currentCustomerId);
-
-            // Calculate shipping (free over ₵50)
-            final double FREE_SHIPPING_THRESHOLD = 50.0;
-            final double SHIPPING_RATE = 5.99;
-            double shipping = cartTotal >= FREE_SHIPPING_THRESHOLD ? 0 : SHIPPING_RATE;
-            double total = cartTotal + shipping;
-
-            // Update labels
-            totalItemsLabel.setText(String.valueOf(itemCount));
-            subtotalLabel.setText("₵" + String.format("%.2f", cartTotal));
-            shippingLabel.setText(shipping == 0 ? "FREE" : "₵" + String.format("%.2f", shipping));
-            totalLabel.setText("₵" + String.format("%.2f", total));
-
-            // Show free shipping message if needed
-            if (cartTotal > 0 && cartTotal < FREE_SHIPPING_THRESHOLD) {
-                double amountNeeded = FREE_SHIPPING_THRESHOLD - cartTotal;
-                showMessage("Add ₵" + String.format("%.2f", amountNeeded) + " more for FREE shipping!");
-            }
+        // Total and count are independent queries, so run them side by side
+        CompletableFuture<Double> totalFuture = cartService.getCartTotalAsync(currentCustomerId);
+        CompletableFuture<Integer> countFuture = cartService.getCartItemCountAsync(currentCustomerId);
 
-        } catch (Exception e) {
-            System.err.println("Error updating cart summary: " + e.getMessage());
+        AsyncUtil.onFxThread(totalFuture.thenCombine(countFuture, CartSummary::new), this::showCartSummary,
+                error -> LOG.error("Error updating cart summary: {}", error.getMessage()));
+    }
+
+    private record CartSummary(double cartTotal, int itemCount) {}
+
+    private void showCartSummary(CartSummary summary) {
+        double cartTotal = summary.cartTotal();
+        int itemCount = summary.itemCount();
+
+        // Calculate shipping (free over ₵50)
+        final double FREE_SHIPPING_THRESHOLD = 50.0;
+        final double SHIPPING_RATE = 5.99;
+        double shipping = cartTotal >= FREE_SHIPPING_THRESHOLD ? 0 : SHIPPING_RATE;
+        double total = cartTotal + shipping;
+
+        // Update labels
+        totalItemsLabel.setText(String.valueOf(itemCount));
+        subtotalLabel.setText("₵" + String.format("%.2f", cartTotal));
+        shippingLabel.setText(shipping == 0 ? "FREE" : "₵" + String.format("%.2f", shipping));
+        totalLabel.setText("₵" + String.format("%.2f", total));
+
+        // Show free shipping message if needed
+        if (cartTotal > 0 && cartTotal < FREE_SHIPPING_THRESHOLD) {
+            double amountNeeded = FREE_SHIPPING_THRESHOLD - cartTotal;
+            showMessage("Add ₵" + String.format("%.2f", amountNeeded) + " more for FREE shipping!");
         }
     }
 
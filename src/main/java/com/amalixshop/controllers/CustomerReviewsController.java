@@ -1,12 +1,14 @@
 package com.amalixshop.controllers;
 
+import com.amalixshop.utils.AppLogger;
 import javafx.fxml.FXML;
 
 public class CustomerReviewsController {
+    private static final AppLogger LOG = AppLogger.getLogger(CustomerReviewsController.class);
 
     @FXML
     private void handleBackToDashboard() {
         // TODO: Navigate back to dashboard
-        System.out.println("Back to dashboard clicked");
+        LOG.debug("Back to dashboard clicked");
     }
 }
\ No newline at end of file
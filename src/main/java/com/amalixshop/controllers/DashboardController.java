@@ -3,21 +3,26 @@ package com.amalixshop.controllers;
 import com.amalixshop.models.Customer;
 import com.amalixshop.services.CartService;
 import com.amalixshop.services.ProductSearchService;
+import com.amalixshop.services.WarmupService;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.FlowPane;
 import javafx.stage.Stage;
+import com.amalixshop.utils.AsyncUtil;
 import com.amalixshop.utils.NavigationUtil;
 import com.amalixshop.services.CategoryService;
 import com.amalixshop.models.Category;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 import com.amalixshop.services.ProductService;
-import com.amalixshop.models.Product;
+import com.amalixshop.models.ProductFacets;
+import com.amalixshop.models.ProductPage;
+import com.amalixshop.models.ProductSort;
+import com.amalixshop.models.ProductSummary;
+import com.amalixshop.utils.AppLogger;
 import javafx.scene.control.Alert;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
@@ -25,10 +30,12 @@ import javafx.geometry.Pos;
 import javafx.scene.paint.Color;
 
 public class DashboardController {
+    private static final AppLogger LOG = AppLogger.getLogger(DashboardController.class);
+
     // Service instance
     private final CategoryService categoryService = new CategoryService();
     private final ProductService productService = new ProductService();
-    private final ProductSearchService searchService = new ProductSearchService();
+    private final ProductSearchService searchService = ProductSearchService.getShared();
     private final CartService cartService = new CartService();
     private String currentCustomerId;
 
@@ -44,18 +51,31 @@ public class DashboardController {
     @FXML private Button prevPageBtn;
     @FXML private Button nextPageBtn;
     @FXML private Label pageLabel;
+    @FXML private Label priceHistogramLabel;
 
     // Current filter state
     private String currentCategoryFilter = null;
     private Double currentMinPrice = null;
     private Double currentMaxPrice = null;
     private String currentSort = null;
+    private String currentQuery = "";
 
     // Pagination variables
     private static final int PRODUCTS_PER_PAGE = 12;
     private int currentPage = 1;
-    private int totalPages = 1;
-    private List<Product> currentProducts = new ArrayList<>();
+    private ProductPage currentPageData = new ProductPage(List.of(), false);
+    // Keyset cursors: page n starts after pageStarts.get(n - 1) (null for page 1)
+    private final List<ProductSummary> pageStarts = new ArrayList<>();
+
+    // In-flight background loads; a newer request cancels the one it replaces. A load
+    // that finished before it could be cancelled may still call back, so callbacks
+    // check they belong to the current load.
+    private CompletableFuture<ProductPage> productsLoad;
+    private CompletableFuture<List<Category>> categoriesLoad;
+    private CompletableFuture<ProductFacets> facetsLoad;
+
+    // Counts for the sidebar filters under the current search; null until loaded
+    private ProductFacets currentFacets;
 
     // Navigation methods
     @FXML
@@ -66,8 +86,7 @@ public class DashboardController {
 
     @FXML
     private void handleSearch() {
-        String query = searchField.getText().trim();
-        performSearch(query);
+        applyCurrentFilters();
     }
 
     @FXML
@@ -91,16 +110,13 @@ public class DashboardController {
     }
 
     private void applyCurrentFilters() {
-        List<Product> results = applyCombinedFilters(searchField.getText().trim());
-
-        // Apply sorting if selected
-        if (currentSort != null) {
-            results = sortProducts(results, currentSort);
-        }
+        currentQuery = searchField.getText().trim();
 
         // Reset to page 1 when filters change
-        currentPage = 1;
-        displayProducts(results);
+        pageStarts.clear();
+        pageStarts.add(null);
+        loadPage(1);
+        loadFacets();
     }
 
     @FXML
@@ -119,32 +135,27 @@ public class DashboardController {
         currentSort = null;
 
         // Show all products (reset to page 1)
-        currentPage = 1;
-        displayProducts(searchService.search(""));
+        applyCurrentFilters();
     }
 
     @FXML
     private void handlePreviousPage() {
         if (currentPage > 1) {
-            currentPage--;
-            showPageProducts();
-            updatePagination();
+            loadPage(currentPage - 1);
         }
     }
 
     @FXML
     private void handleNextPage() {
-        if (currentPage < totalPages) {
-            currentPage++;
-            showPageProducts();
-            updatePagination();
+        if (currentPageData.hasMore()) {
+            loadPage(currentPage + 1);
         }
     }
 
     // Sidebar navigation methods
     @FXML
     private void handleViewProducts() {
-        loadProducts();
+        applyCurrentFilters();
         loadCategories();
     }
 
@@ -178,13 +189,13 @@ public class DashboardController {
     @FXML
     private void handleViewReviews() {
         // TODO: Navigate to reviews page
-        System.out.println("View reviews clicked");
+        LOG.debug("View reviews clicked");
     }
 
     @FXML
     private void handleViewCart() {
-        System.out.println("Navigate to cart clicked");
-        System.out.println("Current customer ID: " + currentCustomerId);
+        LOG.debug("Navigate to cart clicked");
+        LOG.debug("Current customer ID: {}", currentCustomerId);
 
         Stage stage = (Stage) searchField.getScene().getWindow();
         NavigationUtil.navigateToCart(stage, currentCustomerId);
@@ -192,10 +203,10 @@ public class DashboardController {
 
 
 
-    // Initialize method
+    // Initialize method; only wires up the controls, see startLoading
     @FXML
     private void initialize() {
-        System.out.println("Customer dashboard initialized");
+        LOG.debug("Customer dashboard initialized");
 
         // Initialize sort options
         sortComboBox.getItems().addAll(
@@ -213,40 +224,49 @@ public class DashboardController {
                 }
         );
 
-        loadCategories();
-        loadAndCacheProducts();
-        loadProducts();
+        setupCategoryCounts();
         setupSearchSuggestions();
         setupCategorySelectionListener();
     }
 
+    /**
+     * Start loading categories and the first product page, in parallel. Call on the
+     * FX thread once the view is loaded: results are shown as they arrive, and the
+     * view may have been loaded on another thread (WarmupService).
+     */
+    public void startLoading() {
+        loadCategories();
+        applyCurrentFilters();
+    }
+
     public void setCurrentCustomerId(String customerId) {
         this.currentCustomerId = customerId;
     }
 
 
-    private void loadProducts() {
-        try {
-            productsGrid.getChildren().clear();
-
-            List<Product> products = productService.getAllProducts();
-            currentPage = 1;
-            displayProducts(products);
+    private void loadCategories() {
+        AsyncUtil.cancel(categoriesLoad);
+        categoryListView.getItems().clear();
 
-        } catch (Exception e) {
-            Label errorLabel = new Label("Error loading products. Please try again.");
-            errorLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #e74c3c;");
-            productsGrid.getChildren().add(errorLabel);
-        }
+        CompletableFuture<List<Category>> load = categoryService.getAllCategoriesAsync();
+        categoriesLoad = load;
+        AsyncUtil.onFxThread(load,
+                categories -> {
+                    if (categoriesLoad == load) {
+                        showCategories(categories);
+                    }
+                },
+                error -> {
+                    if (categoriesLoad == load) {
+                        LOG.error("Error loading categories: {}", error.getMessage());
+                        categoryListView.getItems().setAll("No categories available");
+                    }
+                });
     }
 
-    private void loadCategories() {
-
+    private void showCategories(List<Category> categories) {
         categoryListView.getItems().clear();
 
-        // Get categories from service
-        List<Category> categories = categoryService.getAllCategories();
-
         if (categories.isEmpty()) {
             categoryListView.getItems().add("No categories available");
         } else {
@@ -261,24 +281,128 @@ public class DashboardController {
     }
 
 
-    private void loadAndCacheProducts() {
-        try {
-            List<Product> products = productService.getAllProducts();
-            searchService.initializeCache(products);
-            currentPage = 1;
-            displayProducts(products);
-        } catch (Exception e) {
-            System.err.println("Error loading products: " + e.getMessage());
+    // Category names stay the list items (the selection listener filters by them); counts are drawn alongside
+    private void setupCategoryCounts() {
+        categoryListView.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(String item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item + countSuffix(item));
+            }
+        });
+    }
+
+    private String countSuffix(String category) {
+        if (currentFacets == null || "No categories available".equals(category)) {
+            return "";
+        }
+        if ("All Categories".equals(category)) {
+            return " (" + currentFacets.getTotal() + ")";
+        }
+        ProductFacets.CategoryFacet facet = currentFacets.getCategory(category);
+        if (facet == null) {
+            // Listed categories that match nothing under the current search
+            return " (0)";
+        }
+        return " (" + facet.getCount() + ", " + facet.getInStock() + " in stock)";
+    }
+
+    // Counts for the current search, computed in the database without loading any products
+    private void loadFacets() {
+        AsyncUtil.cancel(facetsLoad);
+
+        CompletableFuture<ProductFacets> load =
+                categoryService.getFacetsAsync(currentQuery, currentCategoryFilter, currentMinPrice, currentMaxPrice);
+        facetsLoad = load;
+        AsyncUtil.onFxThread(load,
+                facets -> {
+                    if (facetsLoad == load) {
+                        showFacets(facets);
+                    }
+                },
+                error -> {
+                    if (facetsLoad == load) {
+                        LOG.error("Error loading filter counts: {}", error.getMessage());
+                    }
+                });
+    }
+
+    private void showFacets(ProductFacets facets) {
+        currentFacets = facets;
+        categoryListView.refresh();
+
+        StringBuilder histogram = new StringBuilder();
+        if (facets != null) {
+            for (ProductFacets.PriceBucket bucket : facets.getPriceBuckets()) {
+                if (histogram.length() > 0) {
+                    histogram.append('\n');
+                }
+                histogram.append(bucket);
+            }
+        }
+        priceHistogramLabel.setText(histogram.toString());
+    }
+
+    // Fetch one page from the database; only what is on screen is ever loaded
+    private void loadPage(int page) {
+        AsyncUtil.cancel(productsLoad);
+        resultsLabel.setText("Loading products...");
+
+        CompletableFuture<ProductPage> load;
+        if (isRankedSearch()) {
+            load = productService.searchProductPageAsync(currentQuery, currentCategoryFilter,
+                    currentMinPrice, currentMaxPrice, (page - 1) * PRODUCTS_PER_PAGE, PRODUCTS_PER_PAGE);
+        } else {
+            load = productService.getProductPageAsync(currentQuery, currentCategoryFilter,
+                    currentMinPrice, currentMaxPrice, ProductSort.fromLabel(currentSort),
+                    pageStarts.get(page - 1), PRODUCTS_PER_PAGE);
         }
+        productsLoad = load;
+        AsyncUtil.onFxThread(load,
+                result -> {
+                    if (productsLoad != load) {
+                        return; // replaced after it finished, e.g. the sort changed
+                    }
+                    currentPage = page;
+                    currentPageData = result;
+                    // First time on this page: remember where the next one starts
+                    if (result.hasMore() && pageStarts.size() == page) {
+                        pageStarts.add(result.getLast());
+                    }
+                    showPageProducts();
+                    updatePagination();
+                    WarmupService.getInstance().markDashboardReady();
+                },
+                error -> {
+                    if (productsLoad != load) {
+                        return;
+                    }
+                    LOG.error("Error loading products: {}", error.getMessage());
+                    showProductsError();
+                });
+    }
+
+    // A search with no explicit sort is shown best match first
+    private boolean isRankedSearch() {
+        return !currentQuery.isEmpty() && currentSort == null;
+    }
+
+    private void showProductsError() {
+        productsGrid.getChildren().clear();
+        Label errorLabel = new Label("Error loading products. Please try again.");
+        errorLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #e74c3c;");
+        productsGrid.getChildren().add(errorLabel);
+        resultsLabel.setText("");
     }
 
     private void setupSearchSuggestions() {
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue.length() >= 2) { // Start suggesting after 2 characters
+            // Suggestions are only logged for now, so don't compute them unless someone will see them
+            if (newValue.length() >= 2 && LOG.isDebugEnabled()) { // Start suggesting after 2 characters
                 List<String> suggestions = searchService.getSuggestions(newValue);
                 // You could show these in a dropdown or ListView
                 if (!suggestions.isEmpty()) {
-                    System.out.println("Suggestions for '" + newValue + "': " + suggestions);
+                    LOG.debug("Suggestions for '{}': {}", newValue, suggestions);
                 }
             }
         });
@@ -297,42 +421,23 @@ public class DashboardController {
 
     private void setupProductGrid() {
         // TODO: Set up product cards in grid
-        System.out.println("Setting up product grid...");
+        LOG.debug("Setting up product grid...");
     }
 
     private void updatePagination() {
-        // Calculate total pages
-        totalPages = (int) Math.ceil((double) currentProducts.size() / PRODUCTS_PER_PAGE);
-
-        // Update page label
-        pageLabel.setText("Page " + currentPage + " of " + totalPages);
+        // Keyset paging doesn't count the matches, so browsing has no "of N"
+        long total = currentPageData.getTotalCount();
+        if (total >= 0) {
+            int totalPages = (int) Math.max(1, (total + PRODUCTS_PER_PAGE - 1) / PRODUCTS_PER_PAGE);
+            pageLabel.setText("Page " + currentPage + " of " + totalPages);
+        } else {
+            pageLabel.setText("Page " + currentPage);
+        }
 
         // Enable/disable buttons
         prevPageBtn.setDisable(currentPage <= 1);
-        nextPageBtn.setDisable(currentPage >= totalPages);
-
-    }
-
-    private void performSearch(String query) {
-        try {
-            List<Product> results;
-
-            if (currentCategoryFilter != null || currentMinPrice != null || currentMaxPrice != null) {
-                // Apply combined filters
-                results = applyCombinedFilters(query);
-            } else {
-                // Just search
-                results = searchService.search(query);
-            }
-
-            currentPage = 1;
-            displayProducts(results);
-            resultsLabel.setText(results.size() + " results" +
-                    (query.isEmpty() ? "" : " for \"" + query + "\""));
+        nextPageBtn.setDisable(!currentPageData.hasMore());
 
-        } catch (Exception e) {
-            System.err.println("Error searching: " + e.getMessage());
-        }
     }
 
     // Update applyCategoryFilter method
@@ -343,10 +448,10 @@ public class DashboardController {
 
     private void applyPriceFilter(double minPrice, double maxPrice) {
         // TODO: Filter products by price range
-        System.out.println("Filtering by price: " + minPrice + " - " + maxPrice);
+        LOG.debug("Filtering by price: {} - {}", minPrice, maxPrice);
     }
 
-    private VBox createProductCard(Product product) {
+    private VBox createProductCard(ProductSummary product) {
         VBox card = new VBox(10);
         card.setPrefWidth(180);
         card.setPrefHeight(250);
@@ -406,7 +511,7 @@ public class DashboardController {
         return card;
     }
 
-    private static Label getLabel(Product product) {
+    private static Label getLabel(ProductSummary product) {
         Label stockLabel = new Label();
         if (product.getStockQuantity() > 10) {
             stockLabel.setText("In Stock");
@@ -421,7 +526,7 @@ public class DashboardController {
         return stockLabel;
     }
 
-    private void addToCart(Product product) {
+    private void addToCart(ProductSummary product) {
         // Check if user is logged in
         if (currentCustomerId == null || currentCustomerId.isEmpty()) {
             Alert alert = new Alert(Alert.AlertType.WARNING);
@@ -441,168 +546,99 @@ public class DashboardController {
             return;
         }
 
-        try {
-            // Decrypt the product ID
-            String productId = product.getProductId();
-
-            System.out.println(currentCustomerId);
-
-            // Add to cart
-            boolean success = cartService.addToCart(currentCustomerId, productId, 1);
-
-            if (success) {
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Cart Updated");
-                alert.setHeaderText("Product Added to Cart");
-                alert.setContentText(product.getProductName() + " has been added to your cart.");
-                alert.showAndWait();
-
-            } else {
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setTitle("Error");
-                alert.setContentText("Failed to add product to cart. Please try again.");
-                alert.showAndWait();
-            }
-
-        } catch (Exception e) {
-            System.err.println("Error adding to cart: " + e.getMessage());
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Error");
-            alert.setContentText("An error occurred: " + e.getMessage());
-            alert.showAndWait();
-        }
-    }
-
-    private void showProductDetails(Product product) {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Product Details");
-        alert.setHeaderText(product.getProductName());
-        alert.setContentText("Price: $" + product.getPrice() +
-                "\nCategory: " + product.getCategoryName() +
-                "\nDescription: " + product.getDescription() +
-                "\nStock: " + product.getStockQuantity() + " units");
-        alert.showAndWait();
-    }
-
-    private List<Product> applyCombinedFilters(String query) {
-        List<Product> results;
-
-        if (currentCategoryFilter != null && (currentMinPrice != null || currentMaxPrice != null)) {
-            // All filters: category + price + search
-            double min = currentMinPrice != null ? currentMinPrice : 0;
-            double max = currentMaxPrice != null ? currentMaxPrice : Double.MAX_VALUE;
-
-            List<Product> categoryProducts = searchService.filterByCategory(currentCategoryFilter);
-            results = categoryProducts.stream()
-                    .filter(p -> p.getPrice() >= min && p.getPrice() <= max)
-                    .filter(p -> query.isEmpty() ||
-                            p.getProductName().toLowerCase().contains(query.toLowerCase()) ||
-                            p.getDescription().toLowerCase().contains(query.toLowerCase()))
-                    .collect(Collectors.toList());
-
-        } else if (currentCategoryFilter != null) {
-            // Category filter only
-            results = searchService.filterByCategory(currentCategoryFilter);
-            if (!query.isEmpty()) {
-                results = results.stream()
-                        .filter(p -> p.getProductName().toLowerCase().contains(query.toLowerCase()) ||
-                                p.getDescription().toLowerCase().contains(query.toLowerCase()))
-                        .collect(Collectors.toList());
-            }
-
-        } else if (currentMinPrice != null || currentMaxPrice != null) {
-            // Price filter only
-            double min = currentMinPrice != null ? currentMinPrice : 0;
-            double max = currentMaxPrice != null ? currentMaxPrice : Double.MAX_VALUE;
-
-            results = searchService.filterByPriceRange(min, max);
-            if (!query.isEmpty()) {
-                results = results.stream()
-                        .filter(p -> p.getProductName().toLowerCase().contains(query.toLowerCase()) ||
-                                p.getDescription().toLowerCase().contains(query.toLowerCase()))
-                        .collect(Collectors.toList());
-            }
-
-        } else {
-            // Just search
-            results = searchService.search(query);
-        }
-
-        return results;
-    }
-
-    private List<Product> sortProducts(List<Product> products, String sortOption) {
-        List<Product> sorted = new ArrayList<>(products);
-
-        switch (sortOption) {
-            case "Price: Low to High":
-                sorted.sort(Comparator.comparingDouble(Product::getPrice));
-                break;
-            case "Price: High to Low":
-                sorted.sort((p1, p2) -> Double.compare(p2.getPrice(), p1.getPrice()));
-                break;
-            case "Name A-Z":
-                sorted.sort(Comparator.comparing(Product::getProductName, String.CASE_INSENSITIVE_ORDER));
-                break;
-            case "Newest":
-                // Assuming you have a date field in Product
-                // sorted.sort(Comparator.comparing(Product::getCreatedDate).reversed());
-                break;
-        }
-
-        return sorted;
-    }
-
-    private void displayProducts(List<Product> products) {
-        // Store all filtered products for pagination
-        currentProducts = new ArrayList<>(products);
-
-        // Reset to page 1 when new products are loaded
-        currentPage = 1;
-
-        // Show only products for current page
-        showPageProducts();
-
-        // Update pagination
-        updatePagination();
+        int productId = product.getProductId();
+
+        AsyncUtil.onFxThread(cartService.addToCartAsync(currentCustomerId, productId, 1),
+                success -> {
+                    if (success) {
+                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                        alert.setTitle("Cart Updated");
+                        alert.setHeaderText("Product Added to Cart");
+                        alert.setContentText(product.getProductName() + " has been added to your cart.");
+                        alert.showAndWait();
+
+                    } else {
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Error");
+                        alert.setContentText("Failed to add product to cart. Please try again.");
+                        alert.showAndWait();
+                    }
+                },
+                error -> {
+                    LOG.error("Error adding to cart: {}", error.getMessage());
+                    Alert alert = new Alert(Alert.AlertType.ERROR);
+                    alert.setTitle("Error");
+                    alert.setContentText("An error occurred: " + error.getMessage());
+                    alert.showAndWait();
+                });
+    }
+
+    // Cards only carry a summary; the description is fetched (once, then cached) when asked for
+    private void showProductDetails(ProductSummary summary) {
+        AsyncUtil.onFxThread(productService.getProductDetailsAsync(summary.getProductId()),
+                product -> {
+                    if (product == null) {
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Error");
+                        alert.setContentText("Could not load details for " + summary.getProductName() + ".");
+                        alert.showAndWait();
+                        return;
+                    }
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.setTitle("Product Details");
+                    alert.setHeaderText(product.getProductName());
+                    alert.setContentText("Price: $" + product.getPrice() +
+                            "\nCategory: " + product.getCategoryName() +
+                            "\nDescription: " + product.getDescription() +
+                            "\nStock: " + product.getStockQuantity() + " units");
+                    alert.showAndWait();
+                },
+                error -> LOG.error("Error loading product details: {}", error.getMessage()));
     }
 
     private void showPageProducts() {
         productsGrid.getChildren().clear();
 
-        if (currentProducts.isEmpty()) {
+        List<ProductSummary> products = currentPageData.getProducts();
+        if (products.isEmpty()) {
             Label noProductsLabel = new Label("No products found");
             noProductsLabel.setStyle("-fx-font-size: 16px; -fx-text-fill: #666;");
             productsGrid.getChildren().add(noProductsLabel);
+            updateResultsLabel();
             return;
         }
 
-        // Calculate start and end indices for current page
-        int startIndex = (currentPage - 1) * PRODUCTS_PER_PAGE;
-        int endIndex = Math.min(startIndex + PRODUCTS_PER_PAGE, currentProducts.size());
-
         // Add products for current page
-        for (int i = startIndex; i < endIndex; i++) {
-            productsGrid.getChildren().add(createProductCard(currentProducts.get(i)));
+        for (ProductSummary product : products) {
+            productsGrid.getChildren().add(createProductCard(product));
         }
 
         // Update results label
         updateResultsLabel();
     }
     private void updateResultsLabel() {
-        int totalCount = currentProducts.size();
+        int pageCount = currentPageData.getProducts().size();
         int startIndex = (currentPage - 1) * PRODUCTS_PER_PAGE + 1;
-        int endIndex = Math.min(currentPage * PRODUCTS_PER_PAGE, totalCount);
+        int endIndex = startIndex + pageCount - 1;
 
         StringBuilder label = new StringBuilder();
 
-        if (totalCount > 0) {
-            label.append("Showing ").append(startIndex).append("-").append(endIndex)
-                    .append(" of ").append(totalCount).append(" products");
+        if (currentPageData.isApproximate() && pageCount > 0) {
+            label.append("No exact matches; showing ").append(pageCount).append(" similar products");
+        } else if (pageCount > 0) {
+            label.append("Showing ").append(startIndex).append("-").append(endIndex);
+            if (currentPageData.getTotalCount() >= 0) {
+                label.append(" of ").append(currentPageData.getTotalCount());
+            }
+            label.append(" products");
         } else {
             label.append("No products found");
         }
 
+        if (!currentQuery.isEmpty()) {
+            label.append(" for \"").append(currentQuery).append("\"");
+        }
+
         if (currentCategoryFilter != null) {
             label.append(" in ").append(currentCategoryFilter);
         }
@@ -617,11 +653,4 @@ public class DashboardController {
 
         resultsLabel.setText(label.toString());
     }
-
-    // Refresh cache when needed (e.g., after adding to cart)
-    private void refreshProductCache() {
-        List<Product> updatedProducts = productService.getAllProducts();
-        searchService.refreshCache(updatedProducts);
-        System.out.println("Refreshed cache with " + updatedProducts.size() + " products");
-    }
 }
\ No newline at end of file
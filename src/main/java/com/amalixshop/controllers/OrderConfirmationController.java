@@ -9,12 +9,14 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import com.amalixshop.utils.NavigationUtil;
+import com.amalixshop.utils.AppLogger;
 import javafx.geometry.Insets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class OrderConfirmationController {
+    private static final AppLogger LOG = AppLogger.getLogger(OrderConfirmationController.class);
 
     @FXML private Label orderIdLabel;
     @FXML private Label subtotalLabel;
@@ -32,18 +34,18 @@ public class OrderConfirmationController {
 
     @FXML
     private void initialize() {
-        System.out.println("OrderConfirmationController initialized");
+        LOG.debug("OrderConfirmationController initialized");
     }
 
     public void setCurrentCustomerId(String customerId) {
         this.currentCustomerId = customerId;
-        System.out.println("Setting customer ID for order confirmation: " + customerId);
+        LOG.debug("Setting customer ID for order confirmation: {}", customerId);
         loadOrderDetails();
     }
 
     public void setOrderId(String orderId) {
         this.currentOrderId = orderId;
-        System.out.println("Setting order ID: " + orderId);
+        LOG.debug("Setting order ID: {}", orderId);
 
         // Update order ID label
         if (orderId != null && orderIdLabel != null) {
@@ -66,8 +68,7 @@ public class OrderConfirmationController {
             displaySimulatedOrder();
 
         } catch (Exception e) {
-            System.err.println("Error loading order details: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading order details: {}", e.getMessage(), e);
         }
     }
 
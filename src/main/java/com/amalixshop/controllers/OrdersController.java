@@ -7,12 +7,16 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import com.amalixshop.utils.AsyncUtil;
 import com.amalixshop.utils.NavigationUtil;
+import com.amalixshop.utils.AppLogger;
 import javafx.geometry.Insets;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class OrdersController {
+    private static final AppLogger LOG = AppLogger.getLogger(OrdersController.class);
 
     @FXML private Label titleLabel;
     @FXML private VBox ordersContainer;
@@ -26,11 +30,12 @@ public class OrdersController {
     private String currentCustomerId;
     private final OrderService orderService = new OrderService();
     private List<Order> allOrders;
+    private CompletableFuture<List<Order>> ordersLoad;
     private DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
 
     @FXML
     private void initialize() {
-        System.out.println("OrdersController initialized");
+        LOG.debug("OrdersController initialized");
 
         // Initialize filter options
         statusFilterCombo.getItems().addAll("All", "Pending", "Confirmed", "Processing",
@@ -41,9 +46,9 @@ public class OrdersController {
                 "Price: Low to High");
         sortCombo.setValue("Newest First");
 
-        // Set up event listeners
-        statusFilterCombo.setOnAction(e -> loadOrders());
-        sortCombo.setOnAction(e -> loadOrders());
+        // Set up event listeners; filtering and sorting work on the orders already fetched
+        statusFilterCombo.setOnAction(e -> showOrders());
+        sortCombo.setOnAction(e -> showOrders());
 
         // Search field listener with debounce
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
@@ -52,7 +57,7 @@ public class OrdersController {
                     new java.util.TimerTask() {
                         @Override
                         public void run() {
-                            javafx.application.Platform.runLater(() -> loadOrders());
+                            javafx.application.Platform.runLater(() -> showOrders());
                         }
                     },
                     500 // 500ms delay
@@ -62,12 +67,13 @@ public class OrdersController {
 
     public void setCurrentCustomerId(String customerId) {
         this.currentCustomerId = customerId;
-        System.out.println("Setting customer ID for orders: " + customerId);
+        LOG.debug("Setting customer ID for orders: {}", customerId);
         titleLabel.setText("My Orders");
         loadOrders();
     }
 
     private void loadOrders() {
+        AsyncUtil.cancel(ordersLoad);
         ordersContainer.getChildren().clear();
 
         if (currentCustomerId == null || currentCustomerId.isEmpty()) {
@@ -81,10 +87,37 @@ public class OrdersController {
             return;
         }
 
-        try {
-            allOrders = orderService.getOrdersByCustomerId(currentCustomerId);
+        statsLabel.setText("Loading orders...");
+        CompletableFuture<List<Order>> load = orderService.getOrdersByCustomerIdAsync(currentCustomerId);
+        ordersLoad = load;
+        AsyncUtil.onFxThread(load,
+                orders -> {
+                    // A reload that replaced this one after it finished shows its own result
+                    if (ordersLoad != load) {
+                        return;
+                    }
+                    allOrders = orders != null ? orders : List.of();
+                    showOrders();
+                },
+                error -> {
+                    if (ordersLoad != load) {
+                        return;
+                    }
+                    LOG.error("Error loading orders: {}", error.getMessage(), error);
+                    noOrdersMessage.setText("Error loading orders. Please try again.");
+                    noOrdersContainer.setVisible(true);
+                });
+    }
 
-            if (allOrders == null || allOrders.isEmpty()) {
+    private void showOrders() {
+        // Nothing fetched yet
+        if (allOrders == null) {
+            return;
+        }
+        ordersContainer.getChildren().clear();
+
+        try {
+            if (allOrders.isEmpty()) {
                 if (noOrdersContainer != null) {
                     noOrdersContainer.setVisible(true);
                 }
@@ -115,8 +148,7 @@ public class OrdersController {
             updateStats(filteredOrders);
 
         } catch (Exception e) {
-            System.err.println("Error loading orders: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading orders: {}", e.getMessage(), e);
             noOrdersMessage.setText("Error loading orders. Please try again.");
             noOrdersContainer.setVisible(true);
         }
@@ -137,7 +169,7 @@ public class OrdersController {
         String searchText = searchField.getText().trim().toLowerCase();
         if (!searchText.isEmpty()) {
             filtered = filtered.stream()
-                    .filter(order -> order.getOrderId().toLowerCase().contains(searchText) ||
+                    .filter(order -> order.getOrderToken().toLowerCase().contains(searchText) ||
                             String.valueOf(order.getTotalAmount()).contains(searchText) ||
                             order.getItems().stream().anyMatch(item ->
                                     item.getProductName().toLowerCase().contains(searchText)))
@@ -182,7 +214,7 @@ public class OrdersController {
 
         // Order ID and date
         VBox orderInfo = new VBox(5);
-        Label orderIdLabel = new Label("Order #" + getDisplayOrderId(order.getOrderId()));
+        Label orderIdLabel = new Label("Order #" + getDisplayOrderId(order.getOrderToken()));
         orderIdLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
 
         Label dateLabel = new Label("Placed on: " + order.getOrderDate().format(dateFormatter));
@@ -294,7 +326,7 @@ public class OrdersController {
     private void viewOrderDetails(Order order) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Order Details");
-        alert.setHeaderText("Order #" + getDisplayOrderId(order.getOrderId()));
+        alert.setHeaderText("Order #" + getDisplayOrderId(order.getOrderToken()));
 
         StringBuilder content = new StringBuilder();
         content.append("Order Date: ").append(order.getOrderDate().format(dateFormatter)).append("\n");
@@ -320,7 +352,7 @@ public class OrdersController {
     private void trackOrder(Order order) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Track Order");
-        alert.setHeaderText("Order #" + getDisplayOrderId(order.getOrderId()));
+        alert.setHeaderText("Order #" + getDisplayOrderId(order.getOrderToken()));
         alert.setContentText("Tracking information for " + getStatusText(order.getStatus()) +
                 " orders will be available soon.\n\n" +
                 "Estimated delivery date: Within 3-5 business days");
@@ -348,7 +380,7 @@ public class OrdersController {
         statusFilterCombo.setValue("All");
         sortCombo.setValue("Newest First");
         searchField.clear();
-        loadOrders();
+        showOrders();
     }
 
     @FXML
@@ -365,7 +397,7 @@ public class OrdersController {
 
     private void showMessage(String message) {
         // You could add a temporary message label like in CartController
-        System.out.println("Message: " + message);
+        LOG.debug("Message: {}", message);
     }
 
     private void updateStats(List<Order> orders) {
@@ -1,10 +1,12 @@
 package com.amalixshop.controllers;
 
+import com.amalixshop.utils.AppLogger;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 public class ProductDetailController {
+    private static final AppLogger LOG = AppLogger.getLogger(ProductDetailController.class);
 
     @FXML private TextField quantityField;
     @FXML private Label totalPriceLabel;
@@ -12,36 +14,36 @@ public class ProductDetailController {
     @FXML
     private void handleBack() {
         // TODO: Navigate back to products
-        System.out.println("Back clicked");
+        LOG.debug("Back clicked");
     }
 
     @FXML
     private void handleAddToCart() {
         // TODO: Add product to cart
-        System.out.println("Add to cart clicked");
+        LOG.debug("Add to cart clicked");
     }
 
     @FXML
     private void handleBuyNow() {
         // TODO: Proceed to checkout
-        System.out.println("Buy now clicked");
+        LOG.debug("Buy now clicked");
     }
 
     @FXML
     private void handleDecreaseQuantity() {
         // TODO: Decrease quantity
-        System.out.println("Decrease quantity clicked");
+        LOG.debug("Decrease quantity clicked");
     }
 
     @FXML
     private void handleIncreaseQuantity() {
         // TODO: Increase quantity
-        System.out.println("Increase quantity clicked");
+        LOG.debug("Increase quantity clicked");
     }
 
     @FXML
     private void handleWriteReview() {
         // TODO: Open review dialog
-        System.out.println("Write review clicked");
+        LOG.debug("Write review clicked");
     }
 }
\ No newline at end of file
@@ -3,53 +3,85 @@ package com.amalixshop.dao;
 import com.amalixshop.models.Cart;
 import com.amalixshop.models.CartItem;
 import com.amalixshop.database.DatabaseConnection;
-import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.database.RowMapper;
+import com.amalixshop.utils.AppLogger;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CartDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(CartDAO.class);
+
+    // Cart item rows joined with product_name and price; OrderDAO reads carts with it too
+    static final RowMapper<CartItem> CART_ITEM_MAPPER = RowMapper.of((rs, col) -> {
+        CartItem item = new CartItem(rs.getInt(col[0]), rs.getInt(col[1]), rs.getInt(col[2]), rs.getInt(col[3]));
+        item.setProductName(rs.getString(col[4]));
+        item.setPrice(rs.getDouble(col[5]));
+        return item;
+    }, "cart_item_id", "cart_id", "product_id", "quantity", "product_name", "price");
 
     // Create a new cart for a customer
-    public String createCart(String customerId) {
+    public int createCart(int customerId) {
         String sql = "INSERT INTO carts (customer_id) VALUES (?) RETURNING cart_id";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            stmt.setInt(1, customerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return EncryptionUtil.encrypt(rs.getInt("cart_id"));
+                    return rs.getInt("cart_id");
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error creating cart: " + e.getMessage());
+            LOG.error("Error creating cart: {}", e.getMessage());
         }
 
-        return null;
+        return -1;
+    }
+
+    // Get just the cart ID for a customer (no items)
+    public int getCartIdByCustomerId(int customerId) {
+        String sql = "SELECT cart_id FROM carts WHERE customer_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, customerId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("cart_id");
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error fetching cart ID: {}", e.getMessage());
+        }
+
+        return -1;
     }
 
     // Get cart by customer ID
-    public Cart getCartByCustomerId(String customerId) {
+    public Cart getCartByCustomerId(int customerId) {
         String sql = "SELECT * FROM carts WHERE customer_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            stmt.setInt(1, customerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
                     Cart cart = new Cart(
-                            EncryptionUtil.encrypt(rs.getInt("cart_id")),
-                            EncryptionUtil.encrypt(rs.getInt("customer_id"))
+                            rs.getInt("cart_id"),
+                            rs.getInt("customer_id")
                     );
 
                     // Load cart items
-                    List<CartItem> items = getCartItems(rs.getInt("cart_id"));
+                    List<CartItem> items = getCartItems(rs.getInt("cart_id"), conn);
                     cart.setItems(items);
                     cart.calculateTotal();
 
@@ -58,14 +90,14 @@ public class CartDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching cart: " + e.getMessage());
+            LOG.error("Error fetching cart: {}", e.getMessage());
         }
 
         return null;
     }
 
     // Add item to cart
-    public boolean addItemToCart(String cartId, String productId, int quantity) {
+    public boolean addItemToCart(int cartId, int productId, int quantity) {
         String sql = "INSERT INTO cart_items (cart_id, product_id, quantity) " +
                 "VALUES (?, ?, ?) " +
                 "ON CONFLICT (cart_id, product_id) " +
@@ -74,8 +106,8 @@ public class CartDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(cartId));
-            stmt.setInt(2, EncryptionUtil.decrypt(productId));
+            stmt.setInt(1, cartId);
+            stmt.setInt(2, productId);
             stmt.setInt(3, quantity);
 
             int rowsAffected = stmt.executeUpdate();
@@ -83,14 +115,14 @@ public class CartDAO {
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error adding item to cart: " + e.getMessage());
+            LOG.error("Error adding item to cart: {}", e.getMessage());
         }
 
         return false;
     }
 
-    // Get all items in a cart
-    private List<CartItem> getCartItems(int cartId) {
+    // Get all items in a cart, on the caller's connection
+    private List<CartItem> getCartItems(int cartId, Connection conn) {
         List<CartItem> items = new ArrayList<>();
         String sql = "SELECT ci.*, p.product_name, p.price " +
                 "FROM cart_items ci " +
@@ -98,36 +130,23 @@ public class CartDAO {
                 "WHERE ci.cart_id = ? " +
                 "ORDER BY ci.added_at DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, cartId);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    CartItem item = new CartItem(
-                            EncryptionUtil.encrypt(rs.getInt("cart_item_id")),
-                            EncryptionUtil.encrypt(rs.getInt("cart_id")),
-                            EncryptionUtil.encrypt(rs.getInt("product_id")),
-                            rs.getInt("quantity")
-                    );
-
-                    item.setProductName(rs.getString("product_name"));
-                    item.setPrice(rs.getDouble("price"));
-
-                    items.add(item);
-                }
+                items.addAll(CART_ITEM_MAPPER.mapAll(rs));
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching cart items: " + e.getMessage());
+            LOG.error("Error fetching cart items: {}", e.getMessage());
         }
 
         return items;
     }
 
     // Update item quantity
-    public boolean updateItemQuantity(String cartId, String productId, int quantity) {
+    public boolean updateItemQuantity(int cartId, int productId, int quantity) {
         String sql = "UPDATE cart_items SET quantity = ? " +
                 "WHERE cart_id = ? AND product_id = ?";
 
@@ -135,73 +154,73 @@ public class CartDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, quantity);
-            stmt.setInt(2, EncryptionUtil.decrypt(cartId));
-            stmt.setInt(3, EncryptionUtil.decrypt(productId));
+            stmt.setInt(2, cartId);
+            stmt.setInt(3, productId);
 
             int rowsAffected = stmt.executeUpdate();
             updateCartTimestamp(cartId);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error updating item quantity: " + e.getMessage());
+            LOG.error("Error updating item quantity: {}", e.getMessage());
         }
 
         return false;
     }
 
     // Remove item from cart
-    public boolean removeItemFromCart(String cartId, String productId) {
+    public boolean removeItemFromCart(int cartId, int productId) {
         String sql = "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(cartId));
-            stmt.setInt(2, EncryptionUtil.decrypt(productId));
+            stmt.setInt(1, cartId);
+            stmt.setInt(2, productId);
 
             int rowsAffected = stmt.executeUpdate();
             updateCartTimestamp(cartId);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error removing item from cart: " + e.getMessage());
+            LOG.error("Error removing item from cart: {}", e.getMessage());
         }
 
         return false;
     }
 
     // Clear all items from cart
-    public boolean clearCart(String cartId) {
+    public boolean clearCart(int cartId) {
         String sql = "DELETE FROM cart_items WHERE cart_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(cartId));
+            stmt.setInt(1, cartId);
 
             int rowsAffected = stmt.executeUpdate();
             updateCartTimestamp(cartId);
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error clearing cart: " + e.getMessage());
+            LOG.error("Error clearing cart: {}", e.getMessage());
         }
 
         return false;
     }
 
     // Update cart timestamp
-    private void updateCartTimestamp(String cartId) {
+    private void updateCartTimestamp(int cartId) {
         String sql = "UPDATE carts SET updated_at = CURRENT_TIMESTAMP WHERE cart_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(cartId));
+            stmt.setInt(1, cartId);
             stmt.executeUpdate();
 
         } catch (SQLException e) {
-            System.err.println("Error updating cart timestamp: " + e.getMessage());
+            LOG.error("Error updating cart timestamp: {}", e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,45 +1,43 @@
 package com.amalixshop.dao;
 
 import com.amalixshop.database.DatabaseConnection;
+import com.amalixshop.database.RowMapper;
 import com.amalixshop.models.Category;
-import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.utils.AppLogger;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CategoryDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(CategoryDAO.class);
+
+    private static final RowMapper<Category> CATEGORY_MAPPER = RowMapper.of((rs, col) -> new Category(
+            rs.getInt(col[0]), rs.getString(col[1]), rs.getString(col[2])),
+            "category_id", "category_name", "description");
 
     public List<Category> getAllCategories() {
         List<Category> categories = new ArrayList<>();
         String sql = "SELECT category_id, category_name, description FROM categories ORDER BY category_name";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                Category category = new Category(
-                        EncryptionUtil.encrypt(rs.getInt("category_id")),
-                        rs.getString("category_name"),
-                        rs.getString("description")
-                );
-                categories.add(category);
-            }
+            categories.addAll(CATEGORY_MAPPER.mapAll(rs));
 
         } catch (SQLException e) {
-            System.err.println("Error fetching categories: " + e.getMessage());
+            LOG.error("Error fetching categories: {}", e.getMessage());
         }
 
         return categories;
     }
 
-    public String save(Category category) {
+    public int save(Category category) {
         String sql = "INSERT INTO categories (category_name, description) VALUES (?, ?)";
 
-        try (Connection conn = DatabaseConnection.getConnection()){
-
-            PreparedStatement stmt = conn.prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, category.getCategoryName());
             stmt.setString(2, category.getDescription());
@@ -49,48 +47,52 @@ public class CategoryDAO {
             if (affectedRows > 0) {
                 try (ResultSet rs = stmt.getGeneratedKeys()) {
                     if (rs.next()) {
-                        return EncryptionUtil.encrypt(rs.getInt(1)); // Return generated ID
+                        return rs.getInt(1); // Return generated ID
                     }
                 }
             }
-            return "";
+            return -1;
 
         } catch (SQLException e) {
-            System.err.println("Error saving category: " + e.getMessage());
-            return "";
+            LOG.error("Error saving category: {}", e.getMessage());
+            return -1;
         }
     }
 
     public boolean update(Category category) {
         String sql = "UPDATE categories SET category_name = ?, description = ? WHERE category_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-
-            PreparedStatement stmt = conn.prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, category.getCategoryName());
             stmt.setString(2, category.getDescription());
-            stmt.setInt(3, EncryptionUtil.decrypt(category.getCategoryId()));
+            stmt.setInt(3, category.getCategoryId());
 
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            // Cached products carry the category name
+            ProductCache.invalidateAll();
+            return updated;
 
         } catch (SQLException e) {
-            System.err.println("Error updating category: " + e.getMessage());
+            LOG.error("Error updating category: {}", e.getMessage());
             return false;
         }
     }
 
-    public boolean delete(String categoryId) {
+    public boolean delete(int categoryId) {
         String sql = "DELETE FROM categories WHERE category_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(categoryId));
-            return stmt.executeUpdate() > 0;
+            stmt.setInt(1, categoryId);
+            boolean deleted = stmt.executeUpdate() > 0;
+            ProductCache.invalidateAll();
+            return deleted;
 
         } catch (SQLException e) {
-            System.err.println("Error deleting category: " + e.getMessage());
+            LOG.error("Error deleting category: {}", e.getMessage());
             return false;
         }
     }
@@ -110,7 +112,7 @@ public class CategoryDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting category name: " + e.getMessage());
+            LOG.error("Error getting category name: {}", e.getMessage());
         }
 
         return "Unknown";
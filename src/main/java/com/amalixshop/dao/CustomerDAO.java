@@ -3,6 +3,7 @@ package com.amalixshop.dao;
 import com.amalixshop.database.DatabaseConnection;
 import com.amalixshop.models.Customer;
 import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.utils.AppLogger;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -12,6 +13,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class CustomerDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(CustomerDAO.class);
 
     /**
      * Insert a new customer into the database
@@ -22,10 +24,9 @@ public class CustomerDAO {
         String sql = "INSERT INTO customers (customer_name, email, password_hash, phone, address, role) VALUES (?, ?, ?, ?, ?, ?) RETURNING customer_id";
 
         try (
-                Connection conn = DatabaseConnection.getConnection()
+                Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)
         ) {
-            PreparedStatement stmt = conn.prepareStatement(sql);
-
             stmt.setString(1, customer.getCustomerName());
             stmt.setString(2, customer.getEmail());
             stmt.setString(3, customer.getPasswordHash());
@@ -43,10 +44,10 @@ public class CustomerDAO {
             return null;
 
         } catch (SQLException e) {
-            System.err.println("Error inserting customer: " + e.getMessage());
+            LOG.error("Error inserting customer: {}", e.getMessage());
 
             if ("23505".equals(e.getSQLState())) {
-                System.err.println("Customer already exists (duplicate email)");
+                LOG.warn("Customer already exists (duplicate email)");
             }
 
             return null;
@@ -60,9 +61,9 @@ public class CustomerDAO {
         String sql = "SELECT customer_id, role FROM customers WHERE email = ? AND password_hash = ?";
 
         try (
-                Connection conn = DatabaseConnection.getConnection()
+                Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)
         ) {
-            PreparedStatement stmt = conn.prepareStatement(sql);
             stmt.setString(1, email);
             stmt.setString(2, passwordHash);
 
@@ -82,7 +83,7 @@ public class CustomerDAO {
             return null; // Authentication failed
 
         } catch (SQLException e) {
-            System.err.println("Error authenticating customer: " + e.getMessage());
+            LOG.error("Error authenticating customer: {}", e.getMessage());
             return null;
         }
     }
@@ -1,10 +1,12 @@
 package com.amalixshop.dao;
 
 import com.amalixshop.database.DatabaseConnection;
+import com.amalixshop.utils.AppLogger;
 
 import java.sql.*;
 
 public class InventoryDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(InventoryDAO.class);
 
     public boolean createInventoryEntry(int productId, int stockQuantity) {
         String sql = "INSERT INTO inventory (product_id, stock_quantity) VALUES (?, ?)";
@@ -16,10 +18,11 @@ public class InventoryDAO {
             stmt.setInt(2, stockQuantity);
 
             int affectedRows = stmt.executeUpdate();
+            ProductCache.invalidate(productId);
             return affectedRows > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error creating inventory entry: " + e.getMessage());
+            LOG.error("Error creating inventory entry: {}", e.getMessage());
             return false;
         }
     }
@@ -32,10 +35,12 @@ public class InventoryDAO {
 
             stmt.setInt(1, newStockQuantity);
             stmt.setInt(2, productId);
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            ProductCache.invalidate(productId);
+            return updated;
 
         } catch (SQLException e) {
-            System.err.println("Error updating inventory: " + e.getMessage());
+            LOG.error("Error updating inventory: {}", e.getMessage());
             return false;
         }
     }
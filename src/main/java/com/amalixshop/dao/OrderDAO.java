@@ -4,16 +4,42 @@ import com.amalixshop.models.Order;
 import com.amalixshop.models.OrderItem;
 import com.amalixshop.models.CartItem;
 import com.amalixshop.database.DatabaseConnection;
-import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.database.RowMapper;
+import com.amalixshop.utils.AppLogger;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class OrderDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(OrderDAO.class);
+
+    private static final RowMapper<Order> ORDER_MAPPER = RowMapper.of((rs, col) -> {
+        Timestamp orderDate = rs.getTimestamp(col[2]);
+        return new Order(
+                rs.getInt(col[0]),
+                rs.getInt(col[1]),
+                orderDate != null ? orderDate.toLocalDateTime() : null,
+                rs.getDouble(col[3]),
+                rs.getString(col[4]),
+                rs.getString(col[5]),
+                rs.getString(col[6]),
+                rs.getString(col[7]),
+                rs.getString(col[8]),
+                rs.getString(col[9])
+        );
+    }, "order_id", "customer_id", "order_date", "total_amount", "shipping_address",
+            "billing_address", "status", "payment_method", "payment_status", "notes");
+
+    private static final RowMapper<OrderItem> ORDER_ITEM_MAPPER = RowMapper.of((rs, col) -> {
+        OrderItem item = new OrderItem(
+                rs.getInt(col[0]), rs.getInt(col[1]), rs.getInt(col[2]), rs.getInt(col[3]), rs.getDouble(col[4]));
+        item.setProductName(rs.getString(col[5]));
+        return item;
+    }, "order_item_id", "order_id", "product_id", "quantity", "unit_price", "product_name");
 
     // Create a new order from cart
-    public String createOrderFromCart(String customerId, String shippingAddress,
+    public int createOrderFromCart(int customerId, String shippingAddress,
                                       String billingAddress, String paymentMethod) {
         Connection conn = null;
         try {
@@ -21,22 +47,21 @@ public class OrderDAO {
             conn.setAutoCommit(false); // Start transaction
 
             // 1. Get cart and items
-            CartDAO cartDAO = new CartDAO();
             List<CartItem> cartItems = getCartItemsForCustomer(customerId, conn);
 
             if (cartItems.isEmpty()) {
-                System.out.println("No items in cart for customer: " + customerId);
-                return null;
+                LOG.debug("No items in cart for customer: {}", customerId);
+                return -1;
             }
 
-            System.out.println("Found " + cartItems.size() + " items in cart for order creation");
+            LOG.debug("Found {} items in cart for order creation", cartItems.size());
 
             // 2. Calculate total
             double totalAmount = cartItems.stream()
                     .mapToDouble(item -> item.getPrice() * item.getQuantity())
                     .sum();
 
-            System.out.println("Order total calculated: " + totalAmount);
+            LOG.debug("Order total calculated: {}", totalAmount);
 
             // 3. Insert order
             String orderSql = "INSERT INTO orders (customer_id, total_amount, shipping_address, " +
@@ -45,24 +70,25 @@ public class OrderDAO {
                     "RETURNING order_id";
 
             try (PreparedStatement orderStmt = conn.prepareStatement(orderSql)) {
-                orderStmt.setInt(1, EncryptionUtil.decrypt(customerId));
+                orderStmt.setInt(1, customerId);
                 orderStmt.setDouble(2, totalAmount);
                 orderStmt.setString(3, shippingAddress);
                 orderStmt.setString(4, billingAddress != null ? billingAddress : shippingAddress);
                 orderStmt.setString(5, paymentMethod);
 
-                System.out.println("Inserting order for customer: " + EncryptionUtil.decrypt(customerId));
+                LOG.debug("Inserting order for customer: {}", customerId);
 
-                ResultSet rs = orderStmt.executeQuery();
-                if (!rs.next()) {
-                    System.err.println("Failed to get order ID after insertion");
-                    conn.rollback();
-                    return null;
+                int orderId;
+                try (ResultSet rs = orderStmt.executeQuery()) {
+                    if (!rs.next()) {
+                        LOG.error("Failed to get order ID after insertion");
+                        conn.rollback();
+                        return -1;
+                    }
+                    orderId = rs.getInt("order_id");
                 }
 
-                int orderId = rs.getInt("order_id");
-                String encryptedOrderId = EncryptionUtil.encrypt(orderId);
-                System.out.println("Order created with ID: " + orderId + " (encrypted: " + encryptedOrderId + ")");
+                LOG.info("Order created with ID: {}", orderId);
 
                 // 4. Insert order items
                 String itemSql = "INSERT INTO order_items (order_id, product_id, quantity, unit_price) " +
@@ -71,48 +97,48 @@ public class OrderDAO {
                 try (PreparedStatement itemStmt = conn.prepareStatement(itemSql)) {
                     for (CartItem cartItem : cartItems) {
                         itemStmt.setInt(1, orderId);
-                        itemStmt.setInt(2, EncryptionUtil.decrypt(cartItem.getProductId()));
+                        itemStmt.setInt(2, cartItem.getProductId());
                         itemStmt.setInt(3, cartItem.getQuantity());
                         itemStmt.setDouble(4, cartItem.getPrice());
                         itemStmt.addBatch();
 
-                        System.out.println("Adding item to batch: " + cartItem.getProductName() +
-                                " (Qty: " + cartItem.getQuantity() +
-                                ", Price: " + cartItem.getPrice() + ")");
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("Adding item to batch: {} (Qty: {}, Price: {})",
+                                    cartItem.getProductName(), cartItem.getQuantity(), cartItem.getPrice());
+                        }
                     }
                     int[] batchResults = itemStmt.executeBatch();
-                    System.out.println("Inserted " + batchResults.length + " order items");
+                    LOG.debug("Inserted {} order items", batchResults.length);
                 }
 
                 // 5. Clear the cart
-                String cartId = getCartId(customerId, conn);
-                if (cartId != null) {
-                    System.out.println("Clearing cart ID: " + cartId);
+                int cartId = getCartId(customerId, conn);
+                if (cartId > 0) {
+                    LOG.debug("Clearing cart ID: {}", cartId);
                     clearCart(cartId, conn);
                 } else {
-                    System.out.println("No cart found for customer");
+                    LOG.debug("No cart found for customer");
                 }
 
                 conn.commit();
-                System.out.println("Order creation transaction committed successfully");
-                return encryptedOrderId;
+                DatabaseConnection.recordWrite(conn);
+                LOG.debug("Order creation transaction committed successfully");
+                return orderId;
 
             } catch (SQLException e) {
-                System.err.println("SQL error during order creation: " + e.getMessage());
-                e.printStackTrace();
+                LOG.error("SQL error during order creation: {}", e.getMessage(), e);
                 conn.rollback();
                 throw e;
             }
 
         } catch (SQLException e) {
-            System.err.println("Error creating order: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error creating order: {}", e.getMessage(), e);
             try {
                 if (conn != null) conn.rollback();
             } catch (SQLException ex) {
-                System.err.println("Error rolling back: " + ex.getMessage());
+                LOG.error("Error rolling back: {}", ex.getMessage());
             }
-            return null;
+            return -1;
         } finally {
             try {
                 if (conn != null) {
@@ -120,33 +146,34 @@ public class OrderDAO {
                     conn.close();
                 }
             } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
+                LOG.error("Error closing connection: {}", e.getMessage());
             }
         }
     }
 
     // Helper method to get cart items for a customer
-    private List<CartItem> getCartItemsForCustomer(String customerId, Connection conn) throws SQLException {
+    private List<CartItem> getCartItemsForCustomer(int customerId, Connection conn) throws SQLException {
         List<CartItem> items = new ArrayList<>();
 
-        // First, get the cart ID for this customer
-        String cartIdSql = "SELECT cart_id FROM carts WHERE customer_id = ?";
+        // First, get the cart ID for this customer. Locked until the order commits, so an
+        // overlapping checkout waits and then finds the cart already cleared.
+        String cartIdSql = "SELECT cart_id FROM carts WHERE customer_id = ? FOR UPDATE";
         int cartId = -1;
 
         try (PreparedStatement cartStmt = conn.prepareStatement(cartIdSql)) {
-            cartStmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            cartStmt.setInt(1, customerId);
 
             try (ResultSet cartRs = cartStmt.executeQuery()) {
                 if (cartRs.next()) {
                     cartId = cartRs.getInt("cart_id");
                 } else {
-                    System.out.println("No cart found for customer: " + customerId);
+                    LOG.debug("No cart found for customer: {}", customerId);
                     return items; // Return empty list
                 }
             }
         }
 
-        System.out.println("Found cart ID: " + cartId + " for customer");
+        LOG.debug("Found cart ID: {} for customer", cartId);
 
         // Now get the cart items
         String sql = "SELECT ci.*, p.product_name, p.price " +
@@ -159,53 +186,47 @@ public class OrderDAO {
             stmt.setInt(1, cartId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Bound<CartItem> rows = CartDAO.CART_ITEM_MAPPER.bind(rs);
                 while (rs.next()) {
-                    CartItem item = new CartItem(
-                            EncryptionUtil.encrypt(rs.getInt("cart_item_id")),
-                            EncryptionUtil.encrypt(rs.getInt("cart_id")),
-                            EncryptionUtil.encrypt(rs.getInt("product_id")),
-                            rs.getInt("quantity")
-                    );
-
-                    item.setProductName(rs.getString("product_name"));
-                    item.setPrice(rs.getDouble("price"));
+                    CartItem item = rows.map();
                     items.add(item);
 
-                    System.out.println("Cart item: " + item.getProductName() +
-                            " (Qty: " + item.getQuantity() +
-                            ", Price: " + item.getPrice() + ")");
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Cart item: {} (Qty: {}, Price: {})",
+                                item.getProductName(), item.getQuantity(), item.getPrice());
+                    }
                 }
             }
         }
 
-        System.out.println("Total cart items found: " + items.size());
+        LOG.debug("Total cart items found: {}", items.size());
         return items;
     }
 
     // Helper method to get cart ID
-    private String getCartId(String customerId, Connection conn) throws SQLException {
+    private int getCartId(int customerId, Connection conn) throws SQLException {
         String sql = "SELECT cart_id FROM carts WHERE customer_id = ?";
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            stmt.setInt(1, customerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return EncryptionUtil.encrypt(rs.getInt("cart_id"));
+                    return rs.getInt("cart_id");
                 }
             }
         }
-        return null;
+        return -1;
     }
 
     // Helper method to clear cart
-    private void clearCart(String cartId, Connection conn) throws SQLException {
+    private void clearCart(int cartId, Connection conn) throws SQLException {
         String sql = "DELETE FROM cart_items WHERE cart_id = ?";
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, EncryptionUtil.decrypt(cartId));
+            stmt.setInt(1, cartId);
             int rowsDeleted = stmt.executeUpdate();
-            System.out.println("Cleared " + rowsDeleted + " items from cart");
+            LOG.debug("Cleared {} items from cart", rowsDeleted);
         }
 
         // Also update cart timestamp
@@ -213,30 +234,30 @@ public class OrderDAO {
     }
 
     // Helper method to update cart timestamp
-    private void updateCartTimestamp(String cartId, Connection conn) throws SQLException {
+    private void updateCartTimestamp(int cartId, Connection conn) throws SQLException {
         String sql = "UPDATE carts SET updated_at = CURRENT_TIMESTAMP WHERE cart_id = ?";
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, EncryptionUtil.decrypt(cartId));
+            stmt.setInt(1, cartId);
             stmt.executeUpdate();
         }
     }
 
     // Get order by ID
-    public Order getOrderById(String orderId) {
+    public Order getOrderById(int orderId) {
         String sql = "SELECT * FROM orders WHERE order_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(orderId));
+            stmt.setInt(1, orderId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Order order = extractOrderFromResultSet(rs);
+                    Order order = ORDER_MAPPER.map(rs);
 
                     // Load order items
-                    List<OrderItem> items = getOrderItems(rs.getInt("order_id"));
+                    List<OrderItem> items = getOrderItems(order.getOrderId(), conn);
                     order.setItems(items);
 
                     return order;
@@ -244,29 +265,29 @@ public class OrderDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching order: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error fetching order: {}", e.getMessage(), e);
         }
 
         return null;
     }
 
     // Get orders by customer ID
-    public List<Order> getOrdersByCustomerId(String customerId) {
+    public List<Order> getOrdersByCustomerId(int customerId) {
         List<Order> orders = new ArrayList<>();
         String sql = "SELECT * FROM orders WHERE customer_id = ? ORDER BY order_date DESC";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            stmt.setInt(1, customerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Bound<Order> rows = ORDER_MAPPER.bind(rs);
                 while (rs.next()) {
-                    Order order = extractOrderFromResultSet(rs);
+                    Order order = rows.map();
 
                     // Load order items
-                    List<OrderItem> items = getOrderItems(rs.getInt("order_id"));
+                    List<OrderItem> items = getOrderItems(order.getOrderId(), conn);
                     order.setItems(items);
 
                     orders.add(order);
@@ -274,134 +295,97 @@ public class OrderDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching orders: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error fetching orders: {}", e.getMessage(), e);
         }
 
         return orders;
     }
 
-    // Helper method to extract Order from ResultSet
-    private Order extractOrderFromResultSet(ResultSet rs) throws SQLException {
-        return new Order(
-                EncryptionUtil.encrypt(rs.getInt("order_id")),
-                EncryptionUtil.encrypt(rs.getInt("customer_id")),
-                rs.getTimestamp("order_date") != null ?
-                        rs.getTimestamp("order_date").toLocalDateTime() : null,
-                rs.getDouble("total_amount"),
-                rs.getString("shipping_address"),
-                rs.getString("billing_address"),
-                rs.getString("status"),
-                rs.getString("payment_method"),
-                rs.getString("payment_status"),
-                rs.getString("notes")
-        );
-    }
-
-    // Helper method to get order items
-    private List<OrderItem> getOrderItems(int orderId) {
+    // Helper method to get order items (on the caller's connection, so a replica read stays on that replica)
+    private List<OrderItem> getOrderItems(int orderId, Connection conn) {
         List<OrderItem> items = new ArrayList<>();
         String sql = "SELECT oi.*, p.product_name " +
                 "FROM order_items oi " +
                 "JOIN products p ON oi.product_id = p.product_id " +
                 "WHERE oi.order_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, orderId);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    OrderItem item = new OrderItem(
-                            EncryptionUtil.encrypt(rs.getInt("order_item_id")),
-                            EncryptionUtil.encrypt(rs.getInt("order_id")),
-                            EncryptionUtil.encrypt(rs.getInt("product_id")),
-                            rs.getInt("quantity"),
-                            rs.getDouble("unit_price")
-                    );
-
-                    item.setProductName(rs.getString("product_name"));
-                    items.add(item);
-                }
+                items.addAll(ORDER_ITEM_MAPPER.mapAll(rs));
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching order items: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error fetching order items: {}", e.getMessage(), e);
         }
 
         return items;
     }
 
     // Update order status
-    public boolean updateOrderStatus(String orderId, String status) {
+    public boolean updateOrderStatus(int orderId, String status) {
         String sql = "UPDATE orders SET status = ? WHERE order_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, status);
-            stmt.setInt(2, EncryptionUtil.decrypt(orderId));
+            stmt.setInt(2, orderId);
 
             int rowsAffected = stmt.executeUpdate();
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error updating order status: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating order status: {}", e.getMessage(), e);
             return false;
         }
     }
 
     // Update payment status
-    public boolean updatePaymentStatus(String orderId, String paymentStatus) {
+    public boolean updatePaymentStatus(int orderId, String paymentStatus) {
         String sql = "UPDATE orders SET payment_status = ? WHERE order_id = ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, paymentStatus);
-            stmt.setInt(2, EncryptionUtil.decrypt(orderId));
+            stmt.setInt(2, orderId);
 
             int rowsAffected = stmt.executeUpdate();
             return rowsAffected > 0;
 
         } catch (SQLException e) {
-            System.err.println("Error updating payment status: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error updating payment status: {}", e.getMessage(), e);
             return false;
         }
     }
 
     // Get recent orders (for dashboard)
-    public List<Order> getRecentOrders(String customerId, int limit) {
+    public List<Order> getRecentOrders(int customerId, int limit) {
         List<Order> orders = new ArrayList<>();
         String sql = "SELECT * FROM orders WHERE customer_id = ? ORDER BY order_date DESC LIMIT ?";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            stmt.setInt(1, customerId);
             stmt.setInt(2, limit);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Order order = extractOrderFromResultSet(rs);
-                    orders.add(order);
-                }
+                orders.addAll(ORDER_MAPPER.mapAll(rs));
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching recent orders: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error fetching recent orders: {}", e.getMessage(), e);
         }
 
         return orders;
     }
 
     // Get order statistics
-    public OrderStatistics getOrderStatistics(String customerId) {
+    public OrderStatistics getOrderStatistics(int customerId) {
         OrderStatistics stats = new OrderStatistics();
         String sql = "SELECT " +
                 "COUNT(*) as total_orders, " +
@@ -410,10 +394,10 @@ public class OrderDAO {
                 "MAX(order_date) as last_order_date " +
                 "FROM orders WHERE customer_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setInt(1, EncryptionUtil.decrypt(customerId));
+            stmt.setInt(1, customerId);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -424,8 +408,7 @@ public class OrderDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching order statistics: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error fetching order statistics: {}", e.getMessage(), e);
         }
 
         return stats;
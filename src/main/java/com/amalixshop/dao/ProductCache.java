@@ -0,0 +1,117 @@
+package com.amalixshop.dao;
+
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.database.UnitOfWork;
+import com.amalixshop.models.Product;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full products by id, behind {@link ProductDAO#getProductById}.
+ *
+ * Bounded (least recently used goes first) and every entry expires after a
+ * TTL, which caps how stale a row changed outside this process can get. Writes
+ * made through the DAOs evict the product they touch twice: at once, and again
+ * after the surrounding UnitOfWork commits, since a reader on another
+ * connection still sees the old row until then.
+ *
+ * A load that started before an eviction is not cached when it finishes: every
+ * eviction bumps a generation, and put() ignores rows read under an older one.
+ *
+ * Cached products are shared; treat them as read-only.
+ */
+final class ProductCache {
+
+    private static final int MAX_SIZE = DatabaseConfig.getInt("DB_PRODUCT_CACHE_SIZE");
+    private static final long TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_PRODUCT_CACHE_TTL_MS"));
+
+    private static final LinkedHashMap<Integer, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private ProductCache() {
+    }
+
+    static boolean isEnabled() {
+        return MAX_SIZE > 0 && TTL_NANOS > 0;
+    }
+
+    /**
+     * @return the cached product, or null if absent or expired
+     */
+    static Product get(int productId) {
+        if (!isEnabled()) {
+            return null;
+        }
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(productId);
+            if (entry != null && System.nanoTime() - entry.loadedAt < TTL_NANOS) {
+                return entry.product;
+            }
+            if (entry != null) {
+                ENTRIES.remove(productId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read before querying; pass to put() with the rows that query returned.
+     */
+    static long generation() {
+        return GENERATION.get();
+    }
+
+    static void put(Product product, long generation) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (ENTRIES) {
+            // Something was evicted while the row was being read; it may predate that write
+            if (GENERATION.get() != generation) {
+                return;
+            }
+            ENTRIES.put(product.getProductId(), new Entry(product, System.nanoTime()));
+            if (ENTRIES.size() > MAX_SIZE) {
+                ENTRIES.remove(ENTRIES.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * The product row or its stock has been written.
+     */
+    static void invalidate(int productId) {
+        evict(productId);
+        UnitOfWork.afterCommit(() -> evict(productId));
+    }
+
+    /**
+     * Many products changed at once (import, category rename).
+     */
+    static void invalidateAll() {
+        evictAll();
+        UnitOfWork.afterCommit(ProductCache::evictAll);
+    }
+
+    /**
+     * Drop one product now, without waiting for a commit; for changes made elsewhere.
+     */
+    static void evict(int productId) {
+        synchronized (ENTRIES) {
+            GENERATION.incrementAndGet();
+            ENTRIES.remove(productId);
+        }
+    }
+
+    static void evictAll() {
+        synchronized (ENTRIES) {
+            GENERATION.incrementAndGet();
+            ENTRIES.clear();
+        }
+    }
+
+    private record Entry(Product product, long loadedAt) {
+    }
+}
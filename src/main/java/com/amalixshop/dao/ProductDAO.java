@@ -1,27 +1,75 @@
 package com.amalixshop.dao;
 
+import com.amalixshop.config.DatabaseConfig;
 import com.amalixshop.database.DatabaseConnection;
+import com.amalixshop.database.RowMapper;
+import com.amalixshop.database.StreamingQuery;
 import com.amalixshop.models.Product;
-import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.models.ProductFacets;
+import com.amalixshop.models.ProductPage;
+import com.amalixshop.models.ProductSort;
+import com.amalixshop.models.ProductSummary;
+import com.amalixshop.utils.AppLogger;
 
+import java.math.BigDecimal;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public class ProductDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(ProductDAO.class);
+
+    // The columns PRODUCT_MAPPER reads. Listed instead of p.* so search_vector never leaves the database.
+    private static final String PRODUCT_COLUMNS = "p.product_id, p.product_name, p.description, p.price, " +
+            "p.category_id, p.created_at, c.category_name, i.stock_quantity";
+    private static final String PRODUCT_JOINS =
+            "LEFT JOIN categories c ON p.category_id = c.category_id " +
+            "LEFT JOIN inventory i ON p.product_id = i.product_id ";
+    private static final String SELECT_PRODUCTS =
+            "SELECT " + PRODUCT_COLUMNS + " FROM products p " + PRODUCT_JOINS;
+
+    // What a catalog card needs (SUMMARY_MAPPER). Leaves out description, the one column that can be large.
+    private static final String SUMMARY_COLUMNS = "p.product_id, p.product_name, p.price, p.created_at, " +
+            "c.category_name, i.stock_quantity";
+    private static final String SELECT_SUMMARIES =
+            "SELECT " + SUMMARY_COLUMNS + " FROM products p " + PRODUCT_JOINS;
+
+    private static final RowMapper<Product> PRODUCT_MAPPER = RowMapper.of((rs, col) -> {
+        Product product = new Product(rs.getString(col[1]), rs.getString(col[2]), rs.getDouble(col[3]), rs.getInt(col[4]));
+        product.setProductId(rs.getInt(col[0]));
+        product.setCreatedAt(toLocalDateTime(rs.getTimestamp(col[5])));
+        product.setCategoryName(rs.getString(col[6]));
+        product.setStockQuantity(rs.getInt(col[7]));
+        return product;
+    }, "product_id", "product_name", "description", "price", "category_id", "created_at", "category_name", "stock_quantity");
+
+    private static final RowMapper<ProductSummary> SUMMARY_MAPPER = RowMapper.of((rs, col) -> new ProductSummary(
+            rs.getInt(col[0]), rs.getString(col[1]), rs.getDouble(col[2]), rs.getString(col[4]),
+            rs.getInt(col[5]), toLocalDateTime(rs.getTimestamp(col[3]))
+    ), "product_id", "product_name", "price", "created_at", "category_name", "stock_quantity");
+
+    private static final String ALL_PRODUCTS = SELECT_PRODUCTS + "ORDER BY p.product_id";
+    private static final String ALL_SUMMARIES = SELECT_SUMMARIES + "ORDER BY p.product_id";
+
+    // Matches the 'simple' configuration search_vector is built with (see V6 migration)
+    private static final String TS_CONFIG = "simple";
+
+    private static final double FUZZY_THRESHOLD = Double.parseDouble(DatabaseConfig.get("DB_FUZZY_SEARCH_THRESHOLD"));
+    private static final int FUZZY_LIMIT = DatabaseConfig.getInt("DB_FUZZY_SEARCH_LIMIT");
 
     public int insertProduct(Product product) {
         String sql = "INSERT INTO products (product_name, description, price, category_id) VALUES (?, ?, ?, ?) RETURNING product_id";
 
-        try (Connection conn = DatabaseConnection.getConnection()) {
-
-            PreparedStatement stmt = conn.prepareStatement(sql);
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, product.getProductName());
             stmt.setString(2, product.getDescription());
             stmt.setDouble(3, product.getPrice());
-            stmt.setInt(4, EncryptionUtil.decrypt(product.getCategoryId()));
+            stmt.setInt(4, product.getCategoryId());
 
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -31,7 +79,7 @@ public class ProductDAO {
             }
 
         } catch (SQLException e) {
-            System.err.println("Error inserting product: " + e.getMessage());
+            LOG.error("Error inserting product: {}", e.getMessage());
         }
 
         return -1;
@@ -48,13 +96,15 @@ public class ProductDAO {
             stmt.setString(1, product.getProductName());
             stmt.setString(2, product.getDescription());
             stmt.setDouble(3, product.getPrice());
-            stmt.setInt(4, EncryptionUtil.decrypt(product.getCategoryId()));
-            stmt.setInt(5, EncryptionUtil.decrypt(product.getProductId())); // Add this line
+            stmt.setInt(4, product.getCategoryId());
+            stmt.setInt(5, product.getProductId());
 
-            return stmt.executeUpdate();
+            int updated = stmt.executeUpdate();
+            ProductCache.invalidate(product.getProductId());
+            return updated;
 
         } catch (SQLException e) {
-            System.err.println("Error updating product: " + e.getMessage());
+            LOG.error("Error updating product: {}", e.getMessage());
             return 0;
         }
     }
@@ -67,58 +117,161 @@ public class ProductDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, productId);
-            return stmt.executeUpdate();
+            int deleted = stmt.executeUpdate();
+            ProductCache.invalidate(productId);
+            return deleted;
 
         } catch (SQLException e) {
-            System.err.println("Error deleting product: " + e.getMessage());
+            LOG.error("Error deleting product: {}", e.getMessage());
             return 0;
         }
     }
 
     public List<Product> getAllProducts() {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT p.*, c.category_name, i.stock_quantity " +
-                "FROM products p " +
-                "LEFT JOIN categories c ON p.category_id = c.category_id " +
-                "LEFT JOIN inventory i ON p.product_id = i.product_id " +
-                "ORDER BY p.product_id";
 
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(ALL_PRODUCTS);
+             ResultSet rs = stmt.executeQuery()) {
+
+            products.addAll(PRODUCT_MAPPER.mapAll(rs));
+
+        } catch (SQLException e) {
+            LOG.error("Error fetching products: {}", e.getMessage());
+        }
+
+        return products;
+    }
+
+    /**
+     * A summary of every product, in product_id order, handed to action one at a
+     * time through a server-side cursor. Unlike getAllProducts the driver never
+     * holds the whole catalog, so memory stays flat however large it is. Errors are
+     * thrown rather than logged: the caller has to know the scan stopped early.
+     * @return number of products passed to action
+     */
+    public long forEachProductSummary(Consumer<? super ProductSummary> action) throws SQLException {
+        // From the primary, like getCatalogVersion: a lagging replica could be missing
+        // rows older than the version, which a later delta would then never fetch
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return StreamingQuery.forEachRow(conn, ALL_SUMMARIES, SUMMARY_MAPPER, action);
+        }
+    }
+
+    // ==================== CATALOG VERSIONS (V8) ====================
+
+    /**
+     * The mark to fetch the next delta from: the oldest transaction still running.
+     * Every change stamped below it has committed (or rolled back), so a load that
+     * starts after reading it sees all of them; changes at or above it are fetched
+     * again by the next delta, including ones a long transaction commits late.
+     * Read it before loading.
+     */
+    public long getCatalogVersion() throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint");
              ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    /**
+     * Summaries of the products inserted or changed (stock included) at or after
+     * version, a mark from getCatalogVersion.
+     * @return number of products passed to action
+     */
+    public long forEachProductSummaryChangedSince(long version, Consumer<? super ProductSummary> action)
+            throws SQLException {
+        String sql = SELECT_SUMMARIES + "WHERE p.catalog_version >= ? ORDER BY p.product_id";
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return StreamingQuery.forEachRow(conn, sql, SUMMARY_MAPPER, action, version);
+        }
+    }
 
-            while (rs.next()) {
-                Product product = new Product(
-                        rs.getString("product_name"),
-                        rs.getString("description"),
-                        rs.getDouble("price"),
-                        EncryptionUtil.encrypt(rs.getInt("category_id"))
-                );
+    public int[] getProductIdsDeletedSince(long version) throws SQLException {
+        String sql = "SELECT DISTINCT product_id FROM product_deletions WHERE catalog_version >= ?";
 
-                // Set product ID (encrypted)
-                product.setProductId(EncryptionUtil.encrypt(rs.getInt("product_id")));
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                // Set category name
-                product.setCategoryName(rs.getString("category_name"));
-                product.setStockQuantity(rs.getInt("stock_quantity"));
+            stmt.setLong(1, version);
 
-                products.add(product);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMapper.readInts(rs, "product_id");
             }
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Error fetching products: " + e.getMessage());
+    /**
+     * Tombstones below this version have been pruned, so a delta from an older
+     * version would miss deletions. Read it after the tombstones.
+     */
+    public long getPrunedCatalogVersion() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT pruned_before FROM catalog_sync_horizon");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
         }
+    }
 
-        return products;
+    /**
+     * Record the version a client's saved snapshot is at, so the tombstones it
+     * needs for its next delta are kept.
+     */
+    public void recordSnapshotVersion(String clientId, long version) throws SQLException {
+        String sql = "INSERT INTO catalog_sync_clients (client_id, catalog_version) VALUES (?, ?) " +
+                "ON CONFLICT (client_id) DO UPDATE " +
+                "SET catalog_version = EXCLUDED.catalog_version, seen_at = CURRENT_TIMESTAMP";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, clientId);
+            stmt.setLong(2, version);
+            stmt.executeUpdate();
+        }
     }
 
+    /**
+     * Delete the tombstones no recent snapshot needs: those below the oldest
+     * version recorded within retentionDays. Clients not seen for longer are
+     * forgotten; if one comes back, its snapshot is behind the pruned horizon
+     * and it reloads in full. One statement, so the horizon moves with the delete.
+     */
+    public void pruneProductDeletions(int retentionDays) throws SQLException {
+        String sql = "WITH forgotten AS (" +
+                "    DELETE FROM catalog_sync_clients WHERE seen_at < CURRENT_TIMESTAMP - make_interval(days => ?)" +
+                "), horizon AS (" +
+                "    SELECT MIN(catalog_version) AS version FROM catalog_sync_clients " +
+                "    WHERE seen_at >= CURRENT_TIMESTAMP - make_interval(days => ?)" +
+                "), pruned AS (" +
+                "    DELETE FROM product_deletions WHERE catalog_version < (SELECT version FROM horizon)" +
+                ") " +
+                "UPDATE catalog_sync_horizon SET pruned_before = (SELECT version FROM horizon) " +
+                "WHERE (SELECT version FROM horizon) > pruned_before";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, retentionDays);
+            stmt.setInt(2, retentionDays);
+            stmt.executeUpdate();
+        }
+    }
 
+    /**
+     * One product with everything mapped, stock included. Read through
+     * ProductCache, so repeated lookups of the same product usually skip the
+     * database.
+     */
     public Product getProductById(int productId) {
-        String sql = "SELECT p.*, c.category_name, i.stock_quantity " +
-                "FROM products p " +
-                "LEFT JOIN categories c ON p.category_id = c.category_id " +
-                "LEFT JOIN inventory i ON p.product_id = i.product_id " +
-                "WHERE p.product_id = ?";
+        Product cached = ProductCache.get(productId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String sql = SELECT_PRODUCTS + "WHERE p.product_id = ?";
+        long generation = ProductCache.generation();
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -127,102 +280,442 @@ public class ProductDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Product(
-                            rs.getString("product_name"),
-                            rs.getString("description"),
-                            rs.getDouble("price"),
-                            EncryptionUtil.encrypt(rs.getInt("category_id"))
-                    );
+                    Product product = PRODUCT_MAPPER.map(rs);
+                    ProductCache.put(product, generation);
+                    return product;
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching product: " + e.getMessage());
+            LOG.error("Error fetching product: {}", e.getMessage());
         }
 
         return null;
     }
 
-    public List<Product> searchProducts(String query) {
-        List<Product> products = new ArrayList<>();
+    /**
+     * Current summaries of the given products, read with one = ANY(?) query.
+     * Ids that no longer exist are simply missing from the result. Errors are
+     * thrown: the change feed has to know the update didn't happen.
+     */
+    public List<ProductSummary> getProductSummariesByIds(List<Integer> productIds) throws SQLException {
+        List<ProductSummary> summaries = new ArrayList<>(productIds.size());
+        String sql = SELECT_SUMMARIES + "WHERE p.product_id = ANY(?)";
+
+        // From the primary: a replica may not have the change that was just announced yet
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("integer", productIds.toArray()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                summaries.addAll(SUMMARY_MAPPER.mapAll(rs));
+            }
+        }
+        return summaries;
+    }
+
+    // A product was changed outside this process (see CatalogChangeFeed)
+    public static void evictCached(int productId) {
+        ProductCache.evict(productId);
+    }
+
+    public static void evictAllCached() {
+        ProductCache.evictAll();
+    }
 
+    /**
+     * Full-text search, best matches first. Every word of the query is matched as
+     * a prefix, so "wire head" finds "Wireless Headphones". Falls back to
+     * fuzzySearchProducts when nothing matches exactly.
+     */
+    public List<ProductSummary> searchProducts(String query) {
         if (query == null || query.trim().isEmpty()) {
-            return getAllProducts();
+            return getProductPage(null, null, null, null, ProductSort.DEFAULT, null, Integer.MAX_VALUE - 1)
+                    .getProducts();
         }
+        return searchProducts(query, null, null, null, 0, Integer.MAX_VALUE).getProducts();
+    }
 
-        String searchTerm = "%" + query.toLowerCase() + "%";
-        String sql = "SELECT p.*, c.category_name, i.stock_quantity " +
+    /**
+     * One page of full-text search results, ranked by ts_rank over the weighted
+     * search_vector (name, then category, then description), with the total
+     * number of matches. Filters may be null.
+     *
+     * When the first page comes back empty the query is probably misspelt, and the
+     * result is a fuzzy search instead (marked approximate). The fuzzy query only
+     * runs in that case, so exact searches never pay for it.
+     */
+    public ProductPage searchProducts(String query, String categoryName, Double minPrice, Double maxPrice,
+                                      int offset, int limit) {
+        String tsQuery = toPrefixQuery(query);
+        if (tsQuery == null) {
+            return new ProductPage(List.of(), false, 0);
+        }
+
+        // The window count is taken before LIMIT, so one query returns the page and the total
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + ", " +
+                "ts_rank(p.search_vector, q.query) AS rank, COUNT(*) OVER () AS total_matches " +
                 "FROM products p " +
-                "LEFT JOIN categories c ON p.category_id = c.category_id " +
-                "LEFT JOIN inventory i ON p.product_id = i.product_id " +
-                "WHERE LOWER(p.product_name) LIKE ? " +
-                "OR LOWER(p.description) LIKE ? " +
-                "OR LOWER(c.category_name) LIKE ? " +
-                "ORDER BY p.product_name";
+                "CROSS JOIN to_tsquery('" + TS_CONFIG + "', ?) AS q(query) " +
+                PRODUCT_JOINS);
+        List<Object> params = new ArrayList<>();
+        params.add(tsQuery);
 
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        sql.append("WHERE p.search_vector @@ q.query");
+        appendFilters(sql, params, categoryName, minPrice, maxPrice);
+        sql.append(" ORDER BY rank DESC, p.product_id LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
 
-            stmt.setString(1, searchTerm);
-            stmt.setString(2, searchTerm);
-            stmt.setString(3, searchTerm);
+        List<ProductSummary> products = new ArrayList<>();
+        long total = 0;
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bind(stmt, params);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper.Bound<ProductSummary> rows = SUMMARY_MAPPER.bind(rs);
                 while (rs.next()) {
-                    Product product = mapResultSetToProduct(rs);
-                    products.add(product);
+                    total = rs.getLong("total_matches");
+                    products.add(rows.map());
+                }
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error searching products: {}", e.getMessage());
+            return new ProductPage(products, false, 0);
+        }
+
+        if (products.isEmpty() && offset == 0) {
+            List<ProductSummary> similar = fuzzySearchProducts(query, categoryName, minPrice, maxPrice,
+                    FUZZY_THRESHOLD, Math.min(limit, FUZZY_LIMIT));
+            return new ProductPage(similar, false, similar.size(), true);
+        }
+        return new ProductPage(products, offset + products.size() < total, total);
+    }
+
+    /**
+     * Typo-tolerant search on product and category names with pg_trgm, most
+     * similar first. A product matches when some stretch of its name (or of its
+     * category's name) is at least threshold similar to the query, by
+     * word_similarity, so "hedphones" still finds "Wireless Headphones". Both
+     * conditions can use the trigram indexes from V3.
+     *
+     * @param threshold 0-1; lower accepts worse spellings but returns more noise
+     */
+    public List<ProductSummary> fuzzySearchProducts(String query, String categoryName, Double minPrice,
+                                                    Double maxPrice, double threshold, int limit) {
+        List<ProductSummary> products = new ArrayList<>();
+        if (query == null || query.isBlank()) {
+            return products;
+        }
+        String term = query.trim().toLowerCase();
+
+        StringBuilder sql = new StringBuilder("SELECT " + SUMMARY_COLUMNS + ", " +
+                "GREATEST(word_similarity(?, LOWER(p.product_name)), " +
+                "word_similarity(?, LOWER(c.category_name))) AS score " +
+                "FROM products p " + PRODUCT_JOINS +
+                "WHERE (LOWER(p.product_name) %> ? " +
+                "OR p.category_id IN (SELECT category_id FROM categories WHERE LOWER(category_name) %> ?))");
+        List<Object> params = new ArrayList<>(List.of(term, term, term, term));
+        appendFilters(sql, params, categoryName, minPrice, maxPrice);
+        sql.append(" ORDER BY score DESC, p.product_id LIMIT ?");
+        params.add(limit);
+
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+            try {
+                // %> takes its cut-off from this setting; set it for this transaction only,
+                // so the pooled session keeps the default
+                try (PreparedStatement setThreshold = conn.prepareStatement(
+                        "SELECT set_config('pg_trgm.word_similarity_threshold', ?, true)")) {
+                    setThreshold.setString(1, Double.toString(threshold));
+                    // set_config returns the new value; nothing to read
+                    setThreshold.execute();
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    bind(stmt, params);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        products.addAll(SUMMARY_MAPPER.mapAll(rs));
+                    }
+                }
+            } finally {
+                if (autoCommit) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error searching products: " + e.getMessage());
+            LOG.error("Error in fuzzy product search: {}", e.getMessage());
         }
 
         return products;
     }
 
+    /**
+     * Turn free text into a tsquery that requires every word as a prefix
+     * ("wire head" becomes "wire:* &amp; head:*"). Anything but letters and digits
+     * separates words, so user input can't inject tsquery operators.
+     * @return null when the text has no words
+     */
+    static String toPrefixQuery(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder tsQuery = new StringBuilder();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (tsQuery.length() > 0) {
+                tsQuery.append(" & ");
+            }
+            tsQuery.append(word).append(":*");
+        }
+        return tsQuery.length() == 0 ? null : tsQuery.toString();
+    }
+
     public List<Product> getProductsByCategory(String categoryName) {
         List<Product> products = new ArrayList<>();
 
-        String sql = "SELECT p.*, c.category_name, i.stock_quantity " +
-                "FROM products p " +
-                "INNER JOIN categories c ON p.category_id = c.category_id " +
-                "LEFT JOIN inventory i ON p.product_id = i.product_id " +
+        String sql = SELECT_PRODUCTS +
                 "WHERE c.category_name = ? " +
                 "ORDER BY p.product_name";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = DatabaseConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, categoryName);
 
+            try (ResultSet rs = stmt.executeQuery()) {
+                products.addAll(PRODUCT_MAPPER.mapAll(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error fetching products by category: {}", e.getMessage());
+        }
+
+        return products;
+    }
+
+    /**
+     * One page of the catalog, filtered and sorted in SQL.
+     *
+     * Paging is by keyset: the query seeks past the (sort key, product_id) of
+     * the previous page's last product, so page 50 costs the same as page 1
+     * and rows inserted meanwhile don't shift later pages. Any filter may be
+     * null/empty.
+     *
+     * @param after last product of the previous page, or null for the first page
+     */
+    public ProductPage getProductPage(String query, String categoryName, Double minPrice, Double maxPrice,
+                                      ProductSort sort, ProductSummary after, int pageSize) {
+        StringBuilder sql = new StringBuilder(SELECT_SUMMARIES).append("WHERE TRUE");
+        List<Object> params = new ArrayList<>();
+
+        String tsQuery = toPrefixQuery(query);
+        if (tsQuery != null) {
+            sql.append(" AND p.search_vector @@ to_tsquery('" + TS_CONFIG + "', ?)");
+            params.add(tsQuery);
+        }
+        appendFilters(sql, params, categoryName, minPrice, maxPrice);
+
+        if (after != null) {
+            switch (sort) {
+                case PRICE_ASC -> {
+                    sql.append(" AND (p.price, p.product_id) > (?, ?)");
+                    params.add(BigDecimal.valueOf(after.getPrice()));
+                }
+                case PRICE_DESC -> {
+                    sql.append(" AND (p.price, p.product_id) < (?, ?)");
+                    params.add(BigDecimal.valueOf(after.getPrice()));
+                }
+                case NAME -> {
+                    sql.append(" AND (LOWER(p.product_name), p.product_id) > (LOWER(?), ?)");
+                    params.add(after.getProductName());
+                }
+                case NEWEST -> {
+                    sql.append(" AND (p.created_at, p.product_id) < (?, ?)");
+                    params.add(Timestamp.valueOf(after.getCreatedAt()));
+                }
+                default -> sql.append(" AND p.product_id > ?");
+            }
+            params.add(after.getProductId());
+        }
+
+        sql.append(switch (sort) {
+            case PRICE_ASC -> " ORDER BY p.price, p.product_id";
+            case PRICE_DESC -> " ORDER BY p.price DESC, p.product_id DESC";
+            case NAME -> " ORDER BY LOWER(p.product_name), p.product_id";
+            case NEWEST -> " ORDER BY p.created_at DESC, p.product_id DESC";
+            default -> " ORDER BY p.product_id";
+        });
+        // One extra row tells us whether there is a next page without a COUNT(*)
+        sql.append(" LIMIT ?");
+        params.add(pageSize + 1);
+
+        List<ProductSummary> products = new ArrayList<>(Math.min(pageSize + 1, 1024));
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bind(stmt, params);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                products.addAll(SUMMARY_MAPPER.mapAll(rs));
+            }
+
+        } catch (SQLException e) {
+            LOG.error("Error fetching product page: {}", e.getMessage());
+        }
+
+        boolean hasMore = products.size() > pageSize;
+        if (hasMore) {
+            products.remove(pageSize);
+        }
+        return new ProductPage(products, hasMore);
+    }
+
+    /**
+     * Filter counts for a search, in one round trip: products and in-stock
+     * products per category (query and price range applied, category not), and
+     * a histogram of buckets equal-width price bands between the cheapest and
+     * dearest match (query and category applied, price range not). No products
+     * are returned. Any filter may be null.
+     * @return the facets, or null if they couldn't be computed
+     */
+    public ProductFacets getFacets(String query, String categoryName, Double minPrice, Double maxPrice, int buckets) {
+        List<Object> params = new ArrayList<>();
+
+        StringBuilder sql = new StringBuilder(
+                "WITH matched AS (" +
+                "  SELECT p.price, c.category_name, COALESCE(i.stock_quantity, 0) > 0 AS in_stock " +
+                "  FROM products p " + PRODUCT_JOINS +
+                "  WHERE TRUE");
+        String tsQuery = toPrefixQuery(query);
+        if (tsQuery != null) {
+            sql.append(" AND p.search_vector @@ to_tsquery('" + TS_CONFIG + "', ?)");
+            params.add(tsQuery);
+        }
+
+        sql.append("), by_category AS (" +
+                "  SELECT category_name, COUNT(*) AS products, COUNT(*) FILTER (WHERE in_stock) AS in_stock " +
+                "  FROM matched WHERE TRUE");
+        if (minPrice != null) {
+            sql.append(" AND price >= ?");
+            params.add(BigDecimal.valueOf(minPrice));
+        }
+        if (maxPrice != null) {
+            sql.append(" AND price <= ?");
+            params.add(BigDecimal.valueOf(maxPrice));
+        }
+        sql.append("  GROUP BY category_name" +
+                "), priced AS (" +
+                "  SELECT price FROM matched WHERE TRUE");
+        if (categoryName != null) {
+            sql.append(" AND category_name = ?");
+            params.add(categoryName);
+        }
+        // width_bucket puts the maximum itself in bucket n + 1, and rejects lo = hi
+        sql.append("), bounds AS (" +
+                "  SELECT MIN(price) AS lo, MAX(price) AS hi FROM priced" +
+                "), histogram AS (" +
+                "  SELECT CASE WHEN b.hi > b.lo THEN LEAST(width_bucket(pr.price, b.lo, b.hi, ?), ?) ELSE 1 END AS bucket, " +
+                "         COUNT(*) AS products " +
+                "  FROM priced pr CROSS JOIN bounds b GROUP BY 1" +
+                ") " +
+                "SELECT 'category' AS facet, category_name, NULL::INTEGER AS bucket, products, in_stock, " +
+                "       NULL::NUMERIC AS lo, NULL::NUMERIC AS hi " +
+                "FROM by_category " +
+                "UNION ALL " +
+                "SELECT 'price', NULL, h.bucket, h.products, NULL, b.lo, b.hi " +
+                "FROM histogram h CROSS JOIN bounds b");
+        params.add(buckets);
+        params.add(buckets);
+
+        ProductFacets facets = new ProductFacets();
+        long[] bucketCounts = new long[buckets];
+        double lo = 0;
+        double hi = 0;
+        boolean priced = false;
+
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            bind(stmt, params);
+
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Product product = mapResultSetToProduct(rs);
-                    products.add(product);
+                    long products = rs.getLong("products");
+                    if ("category".equals(rs.getString("facet"))) {
+                        facets.setTotal(facets.getTotal() + products);
+                        facets.setInStock(facets.getInStock() + rs.getLong("in_stock"));
+                        String category = rs.getString("category_name");
+                        // Uncategorised products count towards the total but have no entry to pick
+                        if (category != null) {
+                            facets.getCategories().add(
+                                    new ProductFacets.CategoryFacet(category, products, rs.getLong("in_stock")));
+                        }
+                    } else {
+                        priced = true;
+                        lo = rs.getDouble("lo");
+                        hi = rs.getDouble("hi");
+                        bucketCounts[rs.getInt("bucket") - 1] = products;
+                    }
                 }
             }
 
         } catch (SQLException e) {
-            System.err.println("Error fetching products by category: " + e.getMessage());
+            LOG.error("Error computing product facets: {}", e.getMessage());
+            return null;
         }
 
-        return products;
+        facets.getCategories().sort((a, b) -> a.getCategoryName().compareToIgnoreCase(b.getCategoryName()));
+        if (priced) {
+            // Every bucket, empty ones included, so the histogram has no gaps
+            int count = hi > lo ? buckets : 1;
+            double width = (hi - lo) / count;
+            for (int i = 0; i < count; i++) {
+                double bucketMax = i == count - 1 ? hi : lo + width * (i + 1);
+                facets.getPriceBuckets().add(new ProductFacets.PriceBucket(lo + width * i, bucketMax, bucketCounts[i]));
+            }
+        }
+        return facets;
     }
 
-    // Helper method to map ResultSet to Product
-    private Product mapResultSetToProduct(ResultSet rs) throws SQLException {
-        Product product = new Product(
-                rs.getString("product_name"),
-                rs.getString("description"),
-                rs.getDouble("price"),
-                EncryptionUtil.encrypt(rs.getInt("category_id"))
-        );
+    // Category and price-range conditions shared by the page and search queries
+    private static void appendFilters(StringBuilder sql, List<Object> params,
+                                      String categoryName, Double minPrice, Double maxPrice) {
+        if (categoryName != null) {
+            sql.append(" AND c.category_name = ?");
+            params.add(categoryName);
+        }
+        // Bound as NUMERIC, not float8, so the comparisons can use the price index
+        if (minPrice != null) {
+            sql.append(" AND p.price >= ?");
+            params.add(BigDecimal.valueOf(minPrice));
+        }
+        if (maxPrice != null) {
+            sql.append(" AND p.price <= ?");
+            params.add(BigDecimal.valueOf(maxPrice));
+        }
+    }
 
-        product.setProductId(EncryptionUtil.encrypt(rs.getInt("product_id")));
-        product.setCategoryName(rs.getString("category_name"));
-        product.setStockQuantity(rs.getInt("stock_quantity"));
+    private static void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
 
-        return product;
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.amalixshop.dao;
+
+import com.amalixshop.database.StreamingQuery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.SQLException;
+
+/**
+ * Writes the catalog as CSV in the same layout ProductImportDAO reads:
+ * sku,product_name,description,category,price,stock_quantity
+ *
+ * Rows are streamed from a server-side cursor straight to the writer, so an
+ * export of any size needs only one fetch batch in memory. Products without a
+ * sku (added by hand) are written with an empty one.
+ */
+public class ProductExportDAO {
+
+    private static final String HEADER = "sku,product_name,description,category,price,stock_quantity";
+
+    // Columns are read by position below, so keep this order in step with them
+    private static final String EXPORT_SQL =
+            "SELECT p.sku, p.product_name, p.description, c.category_name, p.price, " +
+            "COALESCE(i.stock_quantity, 0) AS stock_quantity " +
+            "FROM products p " +
+            "LEFT JOIN categories c ON p.category_id = c.category_id " +
+            "LEFT JOIN inventory i ON p.product_id = i.product_id " +
+            "ORDER BY p.product_id";
+
+    /**
+     * @return number of products written (not counting the header)
+     */
+    public long exportProducts(Writer out) throws SQLException, IOException {
+        out.write(HEADER);
+        out.write('\n');
+
+        try {
+            return StreamingQuery.forEachRow(EXPORT_SQL, rs -> {
+                try {
+                    writeField(out, rs.getString(1));
+                    out.write(',');
+                    writeField(out, rs.getString(2));
+                    out.write(',');
+                    writeField(out, rs.getString(3));
+                    out.write(',');
+                    writeField(out, rs.getString(4));
+                    out.write(',');
+                    out.write(rs.getBigDecimal(5).toPlainString());
+                    out.write(',');
+                    out.write(Integer.toString(rs.getInt(6)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // RFC 4180 quoting, which is what COPY ... (FORMAT csv) expects on the way back in
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,159 @@
+package com.amalixshop.dao;
+
+import com.amalixshop.database.DatabaseConnection;
+import com.amalixshop.models.ImportResult;
+import com.amalixshop.utils.AppLogger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.*;
+
+/**
+ * Set-based product import. The CSV is streamed into a temporary staging table
+ * with COPY, validated and resolved there with a handful of UPDATEs, and then
+ * merged into products and inventory with one statement each - the per-row
+ * work happens inside PostgreSQL, not in round trips.
+ *
+ * Expected columns, with a header row:
+ * sku,product_name,description,category,price,stock_quantity
+ *
+ * Must be called inside a UnitOfWork: the staging table lives only until commit.
+ */
+public class ProductImportDAO {
+    private static final AppLogger LOG = AppLogger.getLogger(ProductImportDAO.class);
+
+    // Row errors returned to the caller; the rest are only counted
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE product_import (" +
+            "row_no SERIAL, " +
+            "sku TEXT, product_name TEXT, description TEXT, category TEXT, price TEXT, stock_quantity TEXT, " +
+            "category_id INTEGER, product_id INTEGER, inserted BOOLEAN, error TEXT" +
+            ") ON COMMIT DROP";
+
+    private static final String COPY_IN =
+            "COPY product_import (sku, product_name, description, category, price, stock_quantity) " +
+            "FROM STDIN WITH (FORMAT csv, HEADER true)";
+
+    private static final String NORMALIZE =
+            "UPDATE product_import SET " +
+            "sku = NULLIF(TRIM(sku), ''), " +
+            "product_name = NULLIF(TRIM(product_name), ''), " +
+            "description = NULLIF(TRIM(description), ''), " +
+            "category = NULLIF(TRIM(category), ''), " +
+            "price = COALESCE(TRIM(price), ''), " +
+            "stock_quantity = COALESCE(TRIM(stock_quantity), '')";
+
+    // First failing check wins; the limits match the column types in products/inventory
+    private static final String VALIDATE =
+            "UPDATE product_import SET error = CASE " +
+            "WHEN sku IS NULL THEN 'sku is required' " +
+            "WHEN LENGTH(sku) > 64 THEN 'sku is longer than 64 characters' " +
+            "WHEN product_name IS NULL THEN 'product_name is required' " +
+            "WHEN LENGTH(product_name) > 255 THEN 'product_name is longer than 255 characters' " +
+            "WHEN category IS NULL THEN 'category is required' " +
+            "WHEN price !~ '^\\d{1,8}(\\.\\d{1,2})?$' THEN 'price must be an amount like 12.99' " +
+            "WHEN stock_quantity !~ '^\\d{1,9}$' THEN 'stock_quantity must be a whole number, 0 or more' " +
+            "END";
+
+    private static final String RESOLVE_CATEGORIES =
+            "UPDATE product_import s SET category_id = c.category_id " +
+            "FROM (SELECT LOWER(category_name) AS name, MIN(category_id) AS category_id " +
+            "      FROM categories GROUP BY LOWER(category_name)) c " +
+            "WHERE s.error IS NULL AND c.name = LOWER(s.category)";
+
+    private static final String REJECT_UNKNOWN_CATEGORIES =
+            "UPDATE product_import SET error = 'unknown category \"' || category || '\"' " +
+            "WHERE error IS NULL AND category_id IS NULL";
+
+    private static final String REJECT_DUPLICATE_SKUS =
+            "UPDATE product_import s SET error = 'duplicate sku, first seen on row ' || d.first_row " +
+            "FROM (SELECT sku, MIN(row_no) AS first_row FROM product_import " +
+            "      WHERE error IS NULL GROUP BY sku HAVING COUNT(*) > 1) d " +
+            "WHERE s.error IS NULL AND s.sku = d.sku AND s.row_no > d.first_row";
+
+    // xmax = 0 only for rows this statement inserted, which tells inserts from updates
+    private static final String UPSERT_PRODUCTS =
+            "WITH upserted AS (" +
+            "  INSERT INTO products (sku, product_name, description, price, category_id) " +
+            "  SELECT sku, product_name, description, price::NUMERIC(10, 2), category_id " +
+            "  FROM product_import WHERE error IS NULL " +
+            "  ON CONFLICT (sku) DO UPDATE SET " +
+            "    product_name = EXCLUDED.product_name, " +
+            "    description = EXCLUDED.description, " +
+            "    price = EXCLUDED.price, " +
+            "    category_id = EXCLUDED.category_id " +
+            "  RETURNING product_id, sku, (xmax = 0) AS inserted" +
+            ") " +
+            "UPDATE product_import s SET product_id = u.product_id, inserted = u.inserted " +
+            "FROM upserted u WHERE s.error IS NULL AND s.sku = u.sku";
+
+    private static final String UPDATE_STOCK =
+            "UPDATE inventory i SET stock_quantity = s.stock_quantity::INTEGER, last_updated = CURRENT_TIMESTAMP " +
+            "FROM product_import s WHERE s.error IS NULL AND i.product_id = s.product_id";
+
+    private static final String INSERT_STOCK =
+            "INSERT INTO inventory (product_id, stock_quantity) " +
+            "SELECT s.product_id, s.stock_quantity::INTEGER FROM product_import s " +
+            "WHERE s.error IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM inventory i WHERE i.product_id = s.product_id)";
+
+    private static final String COUNT_RESULTS =
+            "SELECT COUNT(*) FILTER (WHERE error IS NULL AND inserted) AS inserted, " +
+            "COUNT(*) FILTER (WHERE error IS NULL AND NOT inserted) AS updated, " +
+            "COUNT(*) FILTER (WHERE error IS NOT NULL) AS rejected " +
+            "FROM product_import";
+
+    private static final String SELECT_ERRORS =
+            "SELECT row_no, sku, error FROM product_import WHERE error IS NOT NULL ORDER BY row_no LIMIT " +
+            MAX_REPORTED_ERRORS;
+
+    public void importProducts(Reader csv, ImportResult result) throws SQLException, IOException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_STAGING);
+
+            CopyManager copy = conn.unwrap(PGConnection.class).getCopyAPI();
+            long rows = copy.copyIn(COPY_IN, csv);
+            result.setTotalRows(rows);
+            LOG.debug("Staged {} import rows", rows);
+
+            // Temp tables are never auto-analyzed; give the planner real row counts for the joins below
+            stmt.execute("ANALYZE product_import");
+
+            stmt.executeUpdate(NORMALIZE);
+            stmt.executeUpdate(VALIDATE);
+            stmt.executeUpdate(RESOLVE_CATEGORIES);
+            stmt.executeUpdate(REJECT_UNKNOWN_CATEGORIES);
+            stmt.executeUpdate(REJECT_DUPLICATE_SKUS);
+
+            stmt.executeUpdate(UPSERT_PRODUCTS);
+            stmt.executeUpdate(UPDATE_STOCK);
+            stmt.executeUpdate(INSERT_STOCK);
+            ProductCache.invalidateAll();
+
+            try (ResultSet rs = stmt.executeQuery(COUNT_RESULTS)) {
+                if (rs.next()) {
+                    result.setInserted(rs.getLong("inserted"));
+                    result.setUpdated(rs.getLong("updated"));
+                    result.setRejected(rs.getLong("rejected"));
+                }
+            }
+
+            if (result.getRejected() > 0) {
+                try (ResultSet rs = stmt.executeQuery(SELECT_ERRORS)) {
+                    while (rs.next()) {
+                        result.getErrors().add(new ImportResult.RowError(
+                                rs.getLong("row_no"),
+                                rs.getString("sku"),
+                                rs.getString("error")
+                        ));
+                    }
+                }
+            }
+        }
+    }
+}
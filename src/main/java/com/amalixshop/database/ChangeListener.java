@@ -0,0 +1,140 @@
+package com.amalixshop.database;
+
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.utils.AppLogger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LISTENs on one PostgreSQL channel from a background thread and hands the
+ * notification payloads to a {@link Handler}, a batch at a time.
+ *
+ * The session runs on a dedicated connection outside the pool. Notifications
+ * sent while no session is listening are lost, so after every (re)connect the
+ * handler is told to resync before any further payloads arrive. A dropped
+ * connection is retried every DB_CHANGE_FEED_RETRY_MS.
+ */
+public class ChangeListener implements AutoCloseable {
+    private static final AppLogger LOG = AppLogger.getLogger(ChangeListener.class);
+
+    private static final int POLL_MS = DatabaseConfig.getInt("DB_CHANGE_FEED_POLL_MS");
+    private static final long RETRY_MS = DatabaseConfig.getLong("DB_CHANGE_FEED_RETRY_MS");
+
+    private final String channel;
+    private final Handler handler;
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile Connection connection;
+
+    public interface Handler {
+        /**
+         * Notifications missed while not listening may have changed anything.
+         * Called on every (re)connect, once LISTEN is in place.
+         */
+        void resync() throws Exception;
+
+        /**
+         * Payloads received together, in the order they were committed.
+         */
+        void onNotifications(List<String> payloads) throws Exception;
+    }
+
+    /**
+     * @param channel a plain identifier; it is not quoted
+     */
+    public ChangeListener(String channel, Handler handler) {
+        this.channel = channel;
+        this.handler = handler;
+        this.thread = new Thread(this::run, "amalixshop-listen-" + channel);
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection conn = DatabaseConnection.openDedicatedConnection()) {
+                connection = conn;
+                listen(conn);
+            } catch (SQLException e) {
+                if (running) {
+                    LOG.warn("Lost '{}' listener connection, retrying in {}ms: {}", channel, RETRY_MS, e.getMessage());
+                }
+            } finally {
+                connection = null;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(RETRY_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("LISTEN " + channel);
+        }
+        LOG.info("Listening on '{}'", channel);
+        deliver(handler::resync);
+
+        PGConnection pg = conn.unwrap(PGConnection.class);
+        while (running) {
+            // Blocks until something arrives or the poll interval passes; throws if the connection died
+            PGNotification[] notifications = pg.getNotifications(POLL_MS);
+            if (notifications == null || notifications.length == 0) {
+                continue;
+            }
+
+            List<String> payloads = new ArrayList<>(notifications.length);
+            for (PGNotification notification : notifications) {
+                payloads.add(notification.getParameter());
+            }
+            deliver(() -> handler.onNotifications(payloads));
+        }
+    }
+
+    // A failing handler shouldn't take the listener down with it; resync once it recovers
+    private void deliver(HandlerCall call) {
+        try {
+            call.run();
+        } catch (Exception e) {
+            LOG.error("Error handling '{}' notifications: {}", channel, e.getMessage());
+            try {
+                handler.resync();
+            } catch (Exception resyncError) {
+                LOG.error("Error resyncing after '{}' notifications: {}", channel, resyncError.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        Connection conn = connection;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                LOG.debug("Error closing '{}' listener connection: {}", channel, e.getMessage());
+            }
+        }
+    }
+
+    private interface HandlerCall {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,558 @@
+package com.amalixshop.database;
+
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.utils.AppLogger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Connections handed out are proxies: close() returns the physical connection
+ * to the pool instead of closing it, so DAOs keep their try-with-resources code.
+ * prepareStatement() on those proxies goes through a per-connection {@link StatementCache},
+ * and the statements handed out report their timings to {@link QueryMetrics}.
+ *
+ * A connection error (SQLState class 08) from the connection or any statement it
+ * handed out marks the physical connection broken; it is closed when returned
+ * instead of going back to the pool.
+ */
+public final class ConnectionPool implements ConnectionPoolMXBean {
+    private static final AppLogger LOG = AppLogger.getLogger(ConnectionPool.class);
+
+    private final String name;
+    private final String url;
+    private final Properties connectionProps;
+
+    private final int maxSize;
+    private final int minIdle;
+    private final long maxLifetimeNanos;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutMs;
+    private final int validationTimeoutSeconds;
+    private final long validateAfterIdleNanos;
+    private final long leakThresholdNanos;
+    private final int statementCacheSize;
+
+    // One permit per connection that may be checked out at the same time
+    private final Semaphore permits;
+    // Most recently returned connection first, so hot connections stay hot
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final QueryMetrics queryMetrics = QueryMetrics.getInstance();
+
+    public ConnectionPool(String name, String url, String user, String password) {
+        this.name = name;
+        this.url = url;
+        this.connectionProps = new Properties();
+        connectionProps.setProperty("user", user);
+        connectionProps.setProperty("password", password);
+        connectionProps.setProperty("prepareThreshold", DatabaseConfig.get("DB_PREPARE_THRESHOLD"));
+
+        this.maxSize = DatabaseConfig.getInt("DB_POOL_MAX_SIZE");
+        this.minIdle = Math.min(DatabaseConfig.getInt("DB_POOL_MIN_IDLE"), maxSize);
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_POOL_MAX_LIFETIME_MS"));
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_POOL_IDLE_TIMEOUT_MS"));
+        this.acquireTimeoutMs = DatabaseConfig.getLong("DB_POOL_ACQUIRE_TIMEOUT_MS");
+        this.validationTimeoutSeconds = DatabaseConfig.getInt("DB_POOL_VALIDATION_TIMEOUT_S");
+        this.validateAfterIdleNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_POOL_VALIDATE_AFTER_IDLE_MS"));
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_POOL_LEAK_THRESHOLD_MS"));
+        this.statementCacheSize = DatabaseConfig.getInt("DB_STATEMENT_CACHE_SIZE");
+        this.permits = new Semaphore(maxSize, true);
+
+        long housekeepingMs = DatabaseConfig.getLong("DB_POOL_HOUSEKEEPING_MS");
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "amalixshop-pool-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, housekeepingMs, TimeUnit.MILLISECONDS);
+
+        registerMBean();
+        LOG.info("Connection pool '{}' started (max {}, min idle {})", name, maxSize, minIdle);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Borrow a connection. Blocks up to DB_POOL_ACQUIRE_TIMEOUT_MS when the pool is exhausted.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMs + "ms waiting for a connection from pool '"
+                        + name + "' (active=" + borrowed.size() + ", waiting=" + permits.getQueueLength() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.borrowedAt = System.nanoTime();
+            pooled.leakReported = false;
+            pooled.borrowTrace = leakThresholdNanos > 0 ? new Throwable("Connection borrowed here") : null;
+            borrowed.add(pooled);
+
+            recordAcquire(pooled.borrowedAt - start);
+            return pooled.newHandle();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long now = System.nanoTime();
+            if (now - pooled.createdAt > maxLifetimeNanos) {
+                destroy(pooled);
+                continue;
+            }
+            if (now - pooled.lastUsed > validateAfterIdleNanos && !isValid(pooled)) {
+                destroy(pooled);
+                continue;
+            }
+            return pooled;
+        }
+        return createConnection();
+    }
+
+    /**
+     * A physical connection with this pool's settings that the pool doesn't
+     * manage: not counted against the maximum, not proxied, closed by the caller.
+     * For long-lived sessions such as LISTEN, which would otherwise hold a pool
+     * slot forever.
+     */
+    public Connection openDedicatedConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+        return DriverManager.getConnection(url, connectionProps);
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        totalConnections.incrementAndGet();
+        try {
+            Connection physical = DriverManager.getConnection(url, connectionProps);
+            created.increment();
+            return new PooledConnection(physical);
+        } catch (SQLException e) {
+            totalConnections.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (closed || pooled.broken || totalConnections.get() > maxSize
+                    || System.nanoTime() - pooled.createdAt > maxLifetimeNanos) {
+                destroy(pooled);
+                return;
+            }
+
+            try {
+                // Catches what the guards can't see, e.g. a failure fetching the next cursor batch
+                if (pooled.physical.isClosed()) {
+                    destroy(pooled);
+                    return;
+                }
+                if (pooled.statements != null) {
+                    pooled.statements.releaseAll();
+                }
+                resetState(pooled.physical);
+            } catch (SQLException e) {
+                destroy(pooled);
+                return;
+            }
+
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Undo anything the borrower changed so the next borrower gets a clean connection
+    private void resetState(Connection physical) throws SQLException {
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        physical.clearWarnings();
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyed.increment();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            LOG.error("Error closing pooled connection: {}", e.getMessage());
+        }
+    }
+
+    private void recordAcquire(long nanos) {
+        acquireCount.increment();
+        acquireNanos.add(nanos);
+        maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+        queryMetrics.recordAcquire(nanos);
+    }
+
+    // Runs on the housekeeper thread: leak detection, idle retirement, min-idle top-up
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+
+            if (leakThresholdNanos > 0) {
+                for (PooledConnection pooled : borrowed) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdNanos) {
+                        pooled.leakReported = true;
+                        leaks.increment();
+                        LOG.warn("Possible connection leak in pool '{}': connection held for {}ms",
+                                name, TimeUnit.NANOSECONDS.toMillis(now - pooled.borrowedAt), pooled.borrowTrace);
+                    }
+                }
+            }
+
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                boolean expired = now - pooled.createdAt > maxLifetimeNanos;
+                boolean idleTooLong = now - pooled.lastUsed > idleTimeoutNanos && idle.size() > minIdle;
+                if ((expired || idleTooLong) && idle.remove(pooled)) {
+                    destroy(pooled);
+                }
+            }
+
+            fillMinIdle();
+
+        } catch (Exception e) {
+            LOG.error("Connection pool housekeeping failed: {}", e.getMessage());
+        }
+    }
+
+    private void fillMinIdle() {
+        while (!closed && idle.size() < minIdle) {
+            int total = totalConnections.get();
+            if (total >= maxSize || !totalConnections.compareAndSet(total, total + 1)) {
+                if (total >= maxSize) return;
+                continue;
+            }
+            try {
+                Connection physical = DriverManager.getConnection(url, connectionProps);
+                created.increment();
+                idle.offerLast(new PooledConnection(physical));
+            } catch (SQLException e) {
+                totalConnections.decrementAndGet();
+                LOG.warn("Could not pre-open connection for pool '{}': {}", name, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Open connections up to DB_POOL_MIN_IDLE now instead of waiting for the housekeeper.
+     */
+    public void warmUp() {
+        fillMinIdle();
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+        unregisterMBean();
+    }
+
+    // ==================== JMX ====================
+
+    private ObjectName objectName() throws Exception {
+        return new ObjectName("com.amalixshop:type=ConnectionPool,name=" + ObjectName.quote(name));
+    }
+
+    private void registerMBean() {
+        try {
+            ObjectName objectName = objectName();
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            LOG.error("Could not register pool MBean: {}", e.getMessage());
+        }
+    }
+
+    private void unregisterMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName());
+        } catch (Exception ignored) {
+            // Not registered
+        }
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    @Override
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    @Override
+    public int getThreadsAwaitingConnection() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getAcquireCount() {
+        return acquireCount.sum();
+    }
+
+    @Override
+    public double getAverageAcquireMillis() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0.0 : acquireNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxAcquireMillis() {
+        return maxAcquireNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public long getAcquireTimeoutCount() {
+        return acquireTimeouts.sum();
+    }
+
+    @Override
+    public long getLeakCount() {
+        return leaks.sum();
+    }
+
+    @Override
+    public long getConnectionsCreated() {
+        return created.sum();
+    }
+
+    @Override
+    public long getConnectionsClosed() {
+        return destroyed.sum();
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return statementHits.sum();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    @Override
+    public double getStatementCacheHitRatio() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    // ==================== POOLED CONNECTION ====================
+
+    private final class PooledConnection {
+        final Connection physical;
+        final StatementCache statements;
+        final long createdAt = System.nanoTime();
+        volatile long lastUsed = createdAt;
+        volatile long borrowedAt;
+        volatile boolean leakReported;
+        volatile boolean broken;
+        volatile Throwable borrowTrace;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementHits, statementMisses)
+                    : null;
+        }
+
+        // A fresh handle per borrow, so a stale reference can't touch the next borrower's session
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean handleClosed;
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]" + (handleClosed ? " (closed)" : "");
+                default:
+                    break;
+            }
+
+            if (handleClosed) {
+                throw new SQLException("Connection is closed");
+            }
+
+            if (method.getName().equals("prepareStatement")) {
+                PreparedStatement statement = prepare(proxy, method, args);
+                return guard(queryMetrics.isEnabled()
+                        ? InstrumentedStatement.wrap(statement, queryMetrics, (String) args[0])
+                        : statement, PreparedStatement.class);
+            }
+
+            Object result = invokePhysical(method, args);
+            return result instanceof Statement statement
+                    ? guard(statement, method.getReturnType())
+                    : result;
+        }
+
+        // Statements run the queries, so they are where a dropped connection usually shows up
+        private Object guard(Statement statement, Class<?> type) {
+            return Proxy.newProxyInstance(
+                    type.getClassLoader(),
+                    new Class<?>[]{type},
+                    (statementProxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return statementProxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(statementProxy);
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw checkBroken(e.getCause());
+                        }
+                    });
+        }
+
+        private PreparedStatement prepare(Object proxy, Method method, Object[] args) throws Throwable {
+            if (pooled.statements != null) {
+                String key = StatementCache.keyFor(method, args);
+                if (key != null) {
+                    return pooled.statements.prepare(pooled.physical, (Connection) proxy, key, method, args);
+                }
+            }
+            return (PreparedStatement) invokePhysical(method, args);
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw checkBroken(e.getCause());
+            }
+        }
+
+        // SQLState class 08 = connection exception; don't hand this one out again
+        private Throwable checkBroken(Throwable error) {
+            if (error instanceof SQLException sqlException
+                    && sqlException.getSQLState() != null
+                    && sqlException.getSQLState().startsWith("08")) {
+                pooled.broken = true;
+            }
+            return error;
+        }
+    }
+}
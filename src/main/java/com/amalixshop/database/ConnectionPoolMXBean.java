@@ -0,0 +1,38 @@
+package com.amalixshop.database;
+
+/**
+ * JMX view of a {@link ConnectionPool}.
+ * Registered as com.amalixshop:type=ConnectionPool,name=&lt;pool name&gt;
+ */
+public interface ConnectionPoolMXBean {
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getThreadsAwaitingConnection();
+
+    int getMaxPoolSize();
+
+    long getAcquireCount();
+
+    double getAverageAcquireMillis();
+
+    double getMaxAcquireMillis();
+
+    long getAcquireTimeoutCount();
+
+    long getLeakCount();
+
+    long getConnectionsCreated();
+
+    long getConnectionsClosed();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    double getStatementCacheHitRatio();
+}
@@ -2,25 +2,82 @@ package com.amalixshop.database;
 
 import com.amalixshop.config.DatabaseConfig;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DatabaseConnection {
     // Private constructor - prevent instantiation
     private DatabaseConnection() {}
 
+    private static volatile boolean poolStarted;
+
+    // Created on first use, so merely loading this class doesn't touch the database
+    private static class PoolHolder {
+        static final ConnectionPool POOL = startPool();
+        static final ReplicaRouter ROUTER = new ReplicaRouter(POOL, DatabaseConfig.getReplicaUrls());
+
+        private static ConnectionPool startPool() {
+            poolStarted = true;
+            return new ConnectionPool(
+                    "primary",
+                    DatabaseConfig.getUrl(),
+                    DatabaseConfig.getUser(),
+                    DatabaseConfig.getPassword()
+            );
+        }
+    }
+
+    /**
+     * Borrow a pooled connection to the primary. Closing it returns it to the pool.
+     * Inside a {@link UnitOfWork} this is the unit's connection instead.
+     */
     public static Connection getConnection() throws SQLException {
+        Connection bound = UnitOfWork.currentConnection();
+        if (bound != null) {
+            return bound;
+        }
+        return PoolHolder.ROUTER.getWriteConnection();
+    }
 
-        Connection conn = DriverManager.getConnection(
-                DatabaseConfig.getUrl(),
-                DatabaseConfig.getUser(),
-                DatabaseConfig.getPassword()
-        );
+    /**
+     * Borrow a connection for read-only queries. Goes to a read replica when one is
+     * configured, healthy and caught up; otherwise to the primary.
+     * Inside a {@link UnitOfWork} reads use the unit's connection so they see its writes.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        Connection bound = UnitOfWork.currentConnection();
+        if (bound != null) {
+            return bound;
+        }
+        return PoolHolder.ROUTER.getReadConnection();
+    }
 
-        System.out.println("Database connection established");
-        return conn;
+    /**
+     * Record that a write was just committed on this (primary) connection, so reads
+     * issued right after it see the change. See DB_READ_YOUR_WRITES.
+     */
+    public static void recordWrite(Connection conn) {
+        if (conn == UnitOfWork.currentConnection()) {
+            // Nothing is committed until the unit of work commits; it records the write then
+            return;
+        }
+        PoolHolder.ROUTER.recordWrite(conn);
     }
-}
 
+    /**
+     * Open a connection to the primary outside the pool. The caller owns it and must close it.
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        return PoolHolder.POOL.openDedicatedConnection();
+    }
 
+    public static ConnectionPool getPool() {
+        return PoolHolder.POOL;
+    }
 
+    public static void shutdown() {
+        if (poolStarted) {
+            PoolHolder.ROUTER.close();
+            PoolHolder.POOL.close();
+        }
+    }
+}
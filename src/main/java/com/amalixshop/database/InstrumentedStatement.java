@@ -0,0 +1,183 @@
+package com.amalixshop.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+/**
+ * Wraps a PreparedStatement to time its executions and count the rows it
+ * returns or changes, feeding {@link QueryMetrics}. Bound parameters are
+ * remembered only by type so slow statements can be logged with their shape.
+ */
+final class InstrumentedStatement implements InvocationHandler {
+
+    private final PreparedStatement target;
+    private final QueryMetrics metrics;
+    private final QueryMetrics.StatementMetrics stats;
+    // Per parameter index: the setter used and the value's type (or string length).
+    // Kept raw so nothing is formatted unless the statement turns out to be slow.
+    private String[] setters = new String[4];
+    private Object[] valueTypes = new Object[4];
+    private int parameterCount;
+
+    private InstrumentedStatement(PreparedStatement target, QueryMetrics metrics, String sql) {
+        this.target = target;
+        this.metrics = metrics;
+        this.stats = metrics.statementMetrics(sql);
+    }
+
+    static PreparedStatement wrap(PreparedStatement target, QueryMetrics metrics, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new InstrumentedStatement(target, metrics, sql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Instrumented" + target;
+            case "clearParameters":
+                Arrays.fill(setters, null);
+                Arrays.fill(valueTypes, null);
+                parameterCount = 0;
+                break;
+            case "execute":
+            case "executeQuery":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return timedExecute(proxy, method, args);
+            case "getResultSet":
+                return countingResultSet((ResultSet) call(method, args), proxy);
+            default:
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    recordShape(index, name, args[1]);
+                }
+                break;
+        }
+        return call(method, args);
+    }
+
+    private Object timedExecute(Object proxy, Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        boolean failed = true;
+        Object result;
+        try {
+            result = call(method, args);
+            failed = false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.recordExecution(stats, elapsed, failed);
+            if (metrics.isSlow(elapsed)) {
+                metrics.recordSlow(stats, elapsed, failed, currentShapes());
+            }
+        }
+
+        if (result instanceof ResultSet rs) {
+            return countingResultSet(rs, proxy);
+        }
+        if (result instanceof Integer updated && updated > 0) {
+            stats.rows.add(updated);
+        } else if (result instanceof Long updated && updated > 0) {
+            stats.rows.add(updated);
+        } else if (result instanceof int[] counts) {
+            for (int count : counts) {
+                if (count > 0) stats.rows.add(count);
+            }
+        }
+        return result;
+    }
+
+    private ResultSet countingResultSet(ResultSet rs, Object statementProxy) {
+        if (rs == null) {
+            return null;
+        }
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getStatement":
+                            return statementProxy;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(rs, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                        stats.rows.increment();
+                    }
+                    return result;
+                });
+    }
+
+    private void recordShape(int index, String setter, Object value) {
+        if (index < 1 || index > 1024) {
+            return;
+        }
+        if (index > setters.length) {
+            int size = Math.max(index, setters.length * 2);
+            setters = Arrays.copyOf(setters, size);
+            valueTypes = Arrays.copyOf(valueTypes, size);
+        }
+
+        setters[index - 1] = setter;
+        valueTypes[index - 1] = value == null ? null
+                : value instanceof String str ? (Object) str.length()
+                : value.getClass();
+        parameterCount = Math.max(parameterCount, index);
+    }
+
+    // e.g. (Int, String(12), null) - types and string lengths only, never values
+    private String[] currentShapes() {
+        if (parameterCount == 0) {
+            return null;
+        }
+        String[] shapes = new String[parameterCount];
+        for (int i = 0; i < parameterCount; i++) {
+            String setter = setters[i];
+            Object type = valueTypes[i];
+            if (setter == null) {
+                continue;
+            }
+            if (setter.equals("setNull") || type == null) {
+                shapes[i] = "null";
+            } else if (type instanceof Integer length) {
+                shapes[i] = "String(" + length + ")";
+            } else if (setter.equals("setObject")) {
+                shapes[i] = ((Class<?>) type).getSimpleName();
+            } else {
+                shapes[i] = setter.substring(3);
+            }
+        }
+        return shapes;
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.amalixshop.database;
+
+import com.amalixshop.utils.AppLogger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned SQL scripts under db/migration/ at startup.
+ *
+ * Scripts are listed, in order, in db/migration/migrations.txt and named
+ * V&lt;version&gt;__&lt;description&gt;.sql. Each applied script is recorded in
+ * schema_version with a checksum; a shipped script that has since been edited
+ * stops the run instead of being applied differently on different installs.
+ *
+ * A script runs in one transaction unless its first line is
+ * "-- migration: no-transaction", which is needed for statements such as
+ * CREATE INDEX CONCURRENTLY. Such a script isn't undone when it fails, so it
+ * is run again from the top on the next start; an index whose concurrent build
+ * failed is left behind INVALID, and is dropped before the build is retried.
+ * A session advisory lock keeps two instances starting at the same time from
+ * migrating together.
+ */
+public final class MigrationRunner {
+    private static final AppLogger LOG = AppLogger.getLogger(MigrationRunner.class);
+
+    private static final String LOCATION = "db/migration/";
+    private static final String INDEX = LOCATION + "migrations.txt";
+    private static final String NO_TRANSACTION = "-- migration: no-transaction";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CONCURRENT_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+IF\\s+NOT\\s+EXISTS\\s+([\\w.]+)",
+            Pattern.CASE_INSENSITIVE);
+    private static final long LOCK_KEY = 0x616d616c69787368L;   // "amalixsh"
+
+    private static final String CREATE_HISTORY =
+            "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "script VARCHAR(200) NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "execution_ms INTEGER NOT NULL, " +
+            "installed_on TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    private MigrationRunner() {
+    }
+
+    /**
+     * Bring the primary database up to the latest shipped version.
+     * @return number of scripts applied by this call
+     */
+    public static int migrate() throws SQLException {
+        List<Migration> migrations = loadMigrations();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(true);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+            }
+
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_HISTORY);
+                }
+
+                Map<Integer, Long> applied = loadApplied(conn);
+                int count = 0;
+
+                for (Migration migration : migrations) {
+                    Long checksum = applied.get(migration.version);
+                    if (checksum == null) {
+                        apply(conn, migration);
+                        count++;
+                    } else if (checksum != migration.checksum) {
+                        throw new SQLException("Migration " + migration.script +
+                                " has changed since it was applied (checksum " + checksum +
+                                ", now " + migration.checksum + ")");
+                    }
+                }
+
+                if (count > 0) {
+                    LOG.info("Applied {} migration(s), schema is at version {}",
+                            count, migrations.get(migrations.size() - 1).version);
+                } else {
+                    LOG.debug("Schema is up to date");
+                }
+                return count;
+            } finally {
+                conn.setAutoCommit(true);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+                }
+            }
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        LOG.info("Applying migration {}", migration.script);
+        long start = System.nanoTime();
+
+        conn.setAutoCommit(!migration.transactional);
+        try {
+            for (String sql : splitStatements(migration.sql)) {
+                if (!migration.transactional) {
+                    Matcher index = CONCURRENT_INDEX.matcher(sql);
+                    if (index.lookingAt()) {
+                        dropInvalidIndex(conn, index.group(1));
+                    }
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + migration.script + " failed: " + e.getMessage() +
+                            System.lineSeparator() + sql, e.getSQLState(), e);
+                }
+            }
+
+            String sql = "INSERT INTO schema_version (version, description, script, checksum, execution_ms) " +
+                    "VALUES (?, ?, ?, ?, ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, migration.version);
+                stmt.setString(2, migration.description);
+                stmt.setString(3, migration.script);
+                stmt.setLong(4, migration.checksum);
+                stmt.setInt(5, (int) ((System.nanoTime() - start) / 1_000_000));
+                stmt.executeUpdate();
+            }
+
+            if (migration.transactional) {
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            if (migration.transactional) {
+                conn.rollback();
+            }
+            throw e;
+        }
+    }
+
+    // IF NOT EXISTS would otherwise skip the invalid index on every retry, and it is never used
+    private static void dropInvalidIndex(Connection conn, String index) throws SQLException {
+        boolean invalid;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT NOT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)")) {
+            stmt.setString(1, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                invalid = rs.next() && rs.getBoolean(1);
+            }
+        }
+        if (invalid) {
+            LOG.warn("Dropping invalid index {} left by an earlier failed build", index);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index);
+            }
+        }
+    }
+
+    private static Map<Integer, Long> loadApplied(Connection conn) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    // ==================== SCRIPTS ====================
+
+    private static List<Migration> loadMigrations() throws SQLException {
+        List<Migration> migrations = new ArrayList<>();
+        int lastVersion = 0;
+
+        for (String line : readResource(INDEX).split("\n")) {
+            String script = line.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+
+            Matcher matcher = SCRIPT_NAME.matcher(script);
+            if (!matcher.matches()) {
+                throw new SQLException("Bad migration script name: " + script);
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if (version <= lastVersion) {
+                throw new SQLException("Migration " + script + " is out of order in " + INDEX);
+            }
+            lastVersion = version;
+
+            String sql = readResource(LOCATION + script);
+            CRC32 crc = new CRC32();
+            crc.update(sql.getBytes(StandardCharsets.UTF_8));
+
+            migrations.add(new Migration(
+                    version,
+                    matcher.group(2).replace('_', ' '),
+                    script,
+                    sql,
+                    crc.getValue(),
+                    !sql.startsWith(NO_TRANSACTION)
+            ));
+        }
+        return migrations;
+    }
+
+    // Normalised to \n so a checkout with CRLF line endings has the same checksum
+    private static String readResource(String path) throws SQLException {
+        InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(path);
+        if (in == null) {
+            throw new SQLException("Migration resource not found: " + path);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot read migration resource " + path, e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Split a script on top-level semicolons, leaving quoted strings, quoted
+     * identifiers, comments and $tag$ bodies intact. Statements are run one at a
+     * time so a failure names the statement and CONCURRENTLY builds are not
+     * wrapped in an implicit transaction.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int length = script.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = script.charAt(i);
+            int end = i + 1;
+
+            if (c == '-' && script.startsWith("--", i)) {
+                end = script.indexOf('\n', i);
+                end = end < 0 ? length : end;
+                i = end;
+                continue;   // comments are dropped
+            } else if (c == '/' && script.startsWith("/*", i)) {
+                end = script.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+                continue;
+            } else if (c == '\'' || c == '"') {
+                end = i + 1;
+                while (end < length) {
+                    if (script.charAt(end) == c) {
+                        if (end + 1 < length && script.charAt(end + 1) == c) {
+                            end += 2;   // doubled quote is an escape
+                            continue;
+                        }
+                        end++;
+                        break;
+                    }
+                    end++;
+                }
+            } else if (c == '$') {
+                int close = script.indexOf('$', i + 1);
+                String tag = close > 0 ? script.substring(i, close + 1) : null;
+                if (tag != null && tag.substring(1, tag.length() - 1).matches("[A-Za-z_]?\\w*")) {
+                    int bodyEnd = script.indexOf(tag, close + 1);
+                    end = bodyEnd < 0 ? length : bodyEnd + tag.length();
+                }
+            } else if (c == ';') {
+                addStatement(statements, current);
+                i++;
+                continue;
+            }
+
+            current.append(script, i, end);
+            i = end;
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String sql = current.toString().trim();
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        current.setLength(0);
+    }
+
+    private record Migration(int version, String description, String script, String sql,
+                             long checksum, boolean transactional) {
+    }
+}
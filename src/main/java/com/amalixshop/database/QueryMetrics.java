@@ -0,0 +1,249 @@
+package com.amalixshop.database;
+
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.utils.AppLogger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-SQL execution statistics collected by the pooled connections: call count,
+ * latency percentiles, rows returned/affected and errors, plus how long callers
+ * waited to get a connection. Statements slower than DB_SLOW_QUERY_MS are also
+ * written to the slow-query log.
+ *
+ * Read it with {@link #getInstance()}.{@link #snapshot()} or over JMX.
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+    private static final AppLogger LOG = AppLogger.getLogger(QueryMetrics.class);
+
+    // Keeps a pathological caller (SQL built by concatenation) from growing the map forever
+    private static final int MAX_STATEMENTS = 500;
+    private static final String OVERFLOW_KEY = "(other statements)";
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    private final boolean enabled = Boolean.parseBoolean(DatabaseConfig.get("DB_QUERY_METRICS"));
+    private final long slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_SLOW_QUERY_MS"));
+    private final Map<String, StatementMetrics> statements = new ConcurrentHashMap<>();
+    private final LatencyHistogram acquireTimes = new LatencyHistogram();
+    private final LongAdder slowQueries = new LongAdder();
+    private final SlowQueryLog slowLog = new SlowQueryLog(DatabaseConfig.get("DB_SLOW_QUERY_LOG"));
+
+    private QueryMetrics() {
+        registerMBean();
+    }
+
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    StatementMetrics statementMetrics(String sql) {
+        StatementMetrics metrics = statements.get(sql);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (statements.size() >= MAX_STATEMENTS) {
+            return statements.computeIfAbsent(OVERFLOW_KEY, StatementMetrics::new);
+        }
+        return statements.computeIfAbsent(sql, StatementMetrics::new);
+    }
+
+    void recordAcquire(long nanos) {
+        acquireTimes.record(nanos);
+    }
+
+    void recordExecution(StatementMetrics metrics, long nanos, boolean failed) {
+        metrics.latency.record(nanos);
+        if (failed) {
+            metrics.errors.increment();
+        }
+    }
+
+    boolean isSlow(long nanos) {
+        return slowThresholdNanos > 0 && nanos >= slowThresholdNanos;
+    }
+
+    void recordSlow(StatementMetrics metrics, long nanos, boolean failed, String[] parameterShapes) {
+        slowQueries.increment();
+        slowLog.write(metrics.sql, nanos, parameterShapes, failed);
+    }
+
+    /**
+     * Current statistics for every statement seen, most total time first.
+     */
+    public List<QueryStats> snapshot() {
+        List<QueryStats> result = new ArrayList<>(statements.size());
+        for (StatementMetrics metrics : statements.values()) {
+            result.add(new QueryStats(metrics));
+        }
+        result.sort(Comparator.comparingDouble(QueryStats::getTotalMillis).reversed());
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        statements.clear();
+        acquireTimes.reset();
+        slowQueries.reset();
+    }
+
+    // ==================== JMX ====================
+
+    private void registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.amalixshop:type=QueryMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            LOG.error("Could not register query metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int getStatementCount() {
+        return statements.size();
+    }
+
+    @Override
+    public long getTotalExecutions() {
+        long total = 0;
+        for (StatementMetrics metrics : statements.values()) {
+            total += metrics.latency.getCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    @Override
+    public double getAcquireP50Millis() {
+        return acquireTimes.percentileMillis(50);
+    }
+
+    @Override
+    public double getAcquireP95Millis() {
+        return acquireTimes.percentileMillis(95);
+    }
+
+    @Override
+    public double getAcquireP99Millis() {
+        return acquireTimes.percentileMillis(99);
+    }
+
+    @Override
+    public String[] getTopStatements() {
+        List<QueryStats> stats = snapshot();
+        String[] lines = new String[stats.size()];
+        for (int i = 0; i < lines.length; i++) {
+            QueryStats s = stats.get(i);
+            lines[i] = String.format("count=%d p50=%.2fms p95=%.2fms p99=%.2fms rows=%d errors=%d | %s",
+                    s.getCount(), s.getP50Millis(), s.getP95Millis(), s.getP99Millis(),
+                    s.getRows(), s.getErrors(), s.getSql());
+        }
+        return lines;
+    }
+
+    // ==================== PER STATEMENT ====================
+
+    static final class StatementMetrics {
+        final String sql;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        StatementMetrics(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Point-in-time copy of one statement's numbers (getters so it can back a TableView).
+     */
+    public static final class QueryStats {
+        private final String sql;
+        private final long count;
+        private final long rows;
+        private final long errors;
+        private final double totalMillis;
+        private final double avgMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        QueryStats(StatementMetrics metrics) {
+            LatencyHistogram latency = metrics.latency;
+            this.sql = metrics.sql;
+            this.count = latency.getCount();
+            this.rows = metrics.rows.sum();
+            this.errors = metrics.errors.sum();
+            this.totalMillis = latency.getTotalMillis();
+            this.avgMillis = latency.getAverageMillis();
+            this.p50Millis = latency.percentileMillis(50);
+            this.p95Millis = latency.percentileMillis(95);
+            this.p99Millis = latency.percentileMillis(99);
+            this.maxMillis = latency.getMaxMillis();
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getTotalMillis() {
+            return totalMillis;
+        }
+
+        public double getAvgMillis() {
+            return avgMillis;
+        }
+
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        public double getMaxMillis() {
+            return maxMillis;
+        }
+    }
+}
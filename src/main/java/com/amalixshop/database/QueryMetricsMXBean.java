@@ -0,0 +1,29 @@
+package com.amalixshop.database;
+
+/**
+ * JMX view of {@link QueryMetrics}.
+ * Registered as com.amalixshop:type=QueryMetrics
+ */
+public interface QueryMetricsMXBean {
+
+    int getStatementCount();
+
+    long getTotalExecutions();
+
+    long getSlowQueryCount();
+
+    long getSlowQueryThresholdMillis();
+
+    double getAcquireP50Millis();
+
+    double getAcquireP95Millis();
+
+    double getAcquireP99Millis();
+
+    /**
+     * One line per statement, most total time first: count, p50/p95/p99, rows, SQL.
+     */
+    String[] getTopStatements();
+
+    void reset();
+}
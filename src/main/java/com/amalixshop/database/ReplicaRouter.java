@@ -0,0 +1,202 @@
+package com.amalixshop.database;
+
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.utils.AppLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes read-only work to streaming replicas and everything else to the primary.
+ *
+ * A monitor polls each replica's replay position and lag. Reads go round-robin to
+ * replicas that are reachable and within DB_REPLICA_MAX_LAG_MS; if none qualify the
+ * primary serves the read. With DB_READ_YOUR_WRITES enabled, {@link #recordWrite}
+ * remembers the primary's WAL position after a commit and replicas that haven't
+ * replayed up to it are skipped until they catch up.
+ */
+public class ReplicaRouter {
+    private static final AppLogger LOG = AppLogger.getLogger(ReplicaRouter.class);
+
+    private static final String LAG_SQL =
+            "SELECT pg_is_in_recovery() AS in_recovery, " +
+            "pg_last_wal_replay_lsn()::text AS replay_lsn, " +
+            "CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END AS lag_ms";
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final boolean readYourWrites;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    // Primary WAL position the replicas must have replayed before they may serve reads
+    private final AtomicLong requiredLsn = new AtomicLong();
+    private final ScheduledExecutorService monitor;
+
+    public ReplicaRouter(ConnectionPool primary, List<String> replicaUrls) {
+        this.primary = primary;
+        this.maxLagMs = DatabaseConfig.getLong("DB_REPLICA_MAX_LAG_MS");
+        this.readYourWrites = Boolean.parseBoolean(DatabaseConfig.get("DB_READ_YOUR_WRITES"));
+
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            replicas.add(new Replica(new ConnectionPool(
+                    "replica-" + (i + 1),
+                    replicaUrls.get(i),
+                    DatabaseConfig.getUser(),
+                    DatabaseConfig.getPassword()
+            )));
+        }
+
+        if (replicas.isEmpty()) {
+            this.monitor = null;
+            return;
+        }
+
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "amalixshop-replica-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        long checkMs = DatabaseConfig.getLong("DB_REPLICA_CHECK_MS");
+        monitor.scheduleWithFixedDelay(this::checkReplicas, 0, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getWriteConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    /**
+     * Connection for read-only queries: a healthy, caught-up replica, or the primary.
+     */
+    public Connection getReadConnection() throws SQLException {
+        int count = replicas.size();
+        if (count == 0) {
+            return primary.getConnection();
+        }
+
+        long required = requiredLsn.get();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (!replica.canServe(required, maxLagMs)) {
+                continue;
+            }
+            try {
+                Connection conn = replica.pool.getConnection();
+                try {
+                    conn.setReadOnly(true);
+                } catch (SQLException e) {
+                    // Give the connection back, or its pool permit is gone for good
+                    conn.close();
+                    throw e;
+                }
+                return conn;
+            } catch (SQLException e) {
+                replica.healthy = false;
+                LOG.warn("Replica {} unavailable, trying next: {}", replica.pool.getName(), e.getMessage());
+            }
+        }
+
+        return primary.getConnection();
+    }
+
+    /**
+     * Call after committing a write on the primary so the same client's next reads
+     * don't land on a replica that hasn't replayed it yet.
+     */
+    public void recordWrite(Connection primaryConnection) {
+        if (!readYourWrites || replicas.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = primaryConnection.prepareStatement("SELECT pg_current_wal_lsn()::text");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                long lsn = parseLsn(rs.getString(1));
+                requiredLsn.accumulateAndGet(lsn, Math::max);
+            }
+        } catch (SQLException e) {
+            // Can't tell where the primary is; pin reads to it until the replicas look idle again
+            requiredLsn.set(Long.MAX_VALUE);
+            LOG.warn("Could not read primary WAL position: {}", e.getMessage());
+        }
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(LAG_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+
+                if (rs.next()) {
+                    boolean inRecovery = rs.getBoolean("in_recovery");
+                    String replayLsn = rs.getString("replay_lsn");
+                    replica.lagMs = inRecovery ? rs.getLong("lag_ms") : 0;
+                    replica.replayLsn = replayLsn != null ? parseLsn(replayLsn) : -1;
+                    replica.healthy = true;
+                }
+
+            } catch (SQLException e) {
+                if (replica.healthy) {
+                    LOG.warn("Replica {} marked unhealthy: {}", replica.pool.getName(), e.getMessage());
+                }
+                replica.healthy = false;
+            }
+        }
+
+        // Once every replica is idle there is nothing left to wait for
+        if (requiredLsn.get() == Long.MAX_VALUE
+                && replicas.stream().allMatch(r -> r.healthy && r.lagMs == 0)) {
+            requiredLsn.set(0);
+        }
+    }
+
+    // "16/B374D848" -> 0x16B374D848
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        long high = Long.parseLong(lsn.substring(0, slash), 16);
+        long low = Long.parseLong(lsn.substring(slash + 1), 16);
+        return (high << 32) | low;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private static final class Replica {
+        final ConnectionPool pool;
+        volatile boolean healthy;
+        volatile long lagMs;
+        // -1 when the node doesn't report a replay position (not a streaming standby)
+        volatile long replayLsn = -1;
+
+        Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        boolean canServe(long requiredLsn, long maxLagMs) {
+            if (!healthy || lagMs > maxLagMs) {
+                return false;
+            }
+            return requiredLsn == 0 || (replayLsn >= 0 && replayLsn >= requiredLsn);
+        }
+    }
+}
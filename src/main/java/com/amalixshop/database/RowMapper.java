@@ -0,0 +1,129 @@
+package com.amalixshop.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps rows to objects by column index instead of by label.
+ *
+ * A mapper is declared once, usually as a constant, with the labels it reads:
+ *
+ * <pre>
+ * RowMapper&lt;Category&gt; CATEGORY = RowMapper.of((rs, col) -&gt; new Category(
+ *         rs.getInt(col[0]), rs.getString(col[1]), rs.getString(col[2])),
+ *         "category_id", "category_name", "description");
+ * </pre>
+ *
+ * The labels are resolved to indexes once per result set, by {@link #mapAll}
+ * or {@link #bind}, and reused for every row of it, so a row costs the getters
+ * and nothing else. Looking columns up by label, as rs.getInt("...") does,
+ * searches the column names again on every call.
+ *
+ * For results that don't need an object per row, {@link #readInts} fills a
+ * primitive array directly.
+ *
+ * A mapper holds no per-result state, so one constant serves every thread; a
+ * {@link Bound} mapper belongs to its result set and the thread reading it.
+ */
+public final class RowMapper<T> {
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        /**
+         * @param columns indexes of the mapper's labels, in the order they were declared
+         */
+        T read(ResultSet rs, int[] columns) throws SQLException;
+    }
+
+    private final Reader<T> reader;
+    private final String[] labels;
+
+    private RowMapper(Reader<T> reader, String[] labels) {
+        this.reader = reader;
+        this.labels = labels.clone();
+    }
+
+    public static <T> RowMapper<T> of(Reader<T> reader, String... labels) {
+        return new RowMapper<>(reader, labels);
+    }
+
+    /**
+     * Map the current row, resolving the columns for it alone. For a single-row
+     * result such as a lookup by id; for more rows use {@link #mapAll} or {@link #bind}.
+     * @throws SQLException if the result set lacks one of the mapper's columns
+     */
+    public T map(ResultSet rs) throws SQLException {
+        return reader.read(rs, resolve(rs));
+    }
+
+    /**
+     * Resolve the columns of rs once, for a loop that maps its rows one at a time.
+     * @throws SQLException if the result set lacks one of the mapper's columns
+     */
+    public Bound<T> bind(ResultSet rs) throws SQLException {
+        return new Bound<>(reader, rs, resolve(rs));
+    }
+
+    /**
+     * Map every remaining row.
+     */
+    public List<T> mapAll(ResultSet rs) throws SQLException {
+        List<T> rows = new ArrayList<>();
+        if (!rs.next()) {
+            return rows;
+        }
+        int[] columns = resolve(rs);
+        do {
+            rows.add(reader.read(rs, columns));
+        } while (rs.next());
+        return rows;
+    }
+
+    private int[] resolve(ResultSet rs) throws SQLException {
+        int[] columns = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            columns[i] = rs.findColumn(labels[i]);
+        }
+        return columns;
+    }
+
+    /**
+     * One int column of every remaining row, e.g. a list of ids, without boxing.
+     */
+    public static int[] readInts(ResultSet rs, String label) throws SQLException {
+        int[] values = new int[16];
+        int count = 0;
+        int column = -1;
+        while (rs.next()) {
+            if (column < 0) {
+                column = rs.findColumn(label);
+            }
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = rs.getInt(column);
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    // A mapper with its columns resolved for one result set
+    public static final class Bound<T> {
+        private final Reader<T> reader;
+        private final ResultSet rs;
+        private final int[] columns;
+
+        private Bound(Reader<T> reader, ResultSet rs, int[] columns) {
+            this.reader = reader;
+            this.rs = rs;
+            this.columns = columns;
+        }
+
+        // Map the current row
+        public T map() throws SQLException {
+            return reader.read(rs, columns);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.amalixshop.database;
+
+import com.amalixshop.config.LogConfig;
+import com.amalixshop.utils.AppLogger;
+import com.amalixshop.utils.AsyncLogAppender;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends statements that ran longer than DB_SLOW_QUERY_MS to their own file,
+ * through the same kind of buffered background writer as the application log.
+ * Only parameter types (and string lengths) are written, never values.
+ */
+class SlowQueryLog {
+
+    private final AsyncLogAppender appender;
+
+    SlowQueryLog(String file) {
+        this.appender = file == null || file.isBlank() ? null : new AsyncLogAppender(
+                file,
+                LogConfig.getLong("LOG_MAX_FILE_BYTES"),
+                LogConfig.getInt("LOG_MAX_FILES"),
+                false,
+                1024
+        );
+    }
+
+    void write(String sql, long nanos, String[] parameterShapes, boolean failed) {
+        if (appender == null) {
+            return;
+        }
+
+        appender.append(AppLogger.Level.WARN, "SlowQuery", "{}ms{} params=({}) {}", new Object[]{
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                failed ? " FAILED" : "",
+                parameterShapes != null ? String.join(", ", parameterShapes) : "",
+                sql
+        }, null);
+    }
+}
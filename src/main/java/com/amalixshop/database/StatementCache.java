@@ -0,0 +1,213 @@
+package com.amalixshop.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of PreparedStatements for one physical connection, keyed by SQL text.
+ *
+ * The DAOs prepare the same constant SQL on every call. Handing back the already
+ * prepared statement lets the driver keep using its server-side prepared statement
+ * instead of parsing and planning the query again.
+ *
+ * Only used by the thread that currently has the connection borrowed, so no locking.
+ */
+class StatementCache {
+
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(int maxSize, LongAdder hits, LongAdder misses) {
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Key for a prepareStatement(...) call, or null when that overload isn't cached.
+     */
+    static String keyFor(Method method, Object[] args) {
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length == 1) {
+            return (String) args[0];
+        }
+        if (types.length == 2 && types[1] == int.class) {
+            return args[0] + "\u0000k" + args[1];
+        }
+        if (types.length == 3 && types[1] == int.class && types[2] == int.class) {
+            return args[0] + "\u0000t" + args[1] + "," + args[2];
+        }
+        return null;
+    }
+
+    PreparedStatement prepare(Connection physical, Connection owner, String key,
+                              Method method, Object[] args) throws Throwable {
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            cached.checkOut(owner);
+            return cached.proxy;
+        }
+
+        misses.increment();
+        PreparedStatement statement = invoke(method, physical, args);
+
+        // Same SQL already open on this connection (nested use) - don't cache the second one
+        if (cached != null) {
+            return statement;
+        }
+
+        cached = new CachedStatement(statement);
+        statements.put(key, cached);
+        evictOverflow();
+        cached.checkOut(owner);
+        return cached.proxy;
+    }
+
+    /**
+     * Called when the connection goes back to the pool: statements the borrower
+     * forgot to close are returned to the cache.
+     */
+    void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.checkIn();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement eldest = it.next();
+            if (eldest.inUse) {
+                continue;
+            }
+            it.remove();
+            try {
+                eldest.statement.close();
+            } catch (SQLException ignored) {
+                // Statement is gone either way
+            }
+        }
+    }
+
+    private static PreparedStatement invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return (PreparedStatement) method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class CachedStatement implements InvocationHandler {
+        final PreparedStatement statement;
+        final PreparedStatement proxy;
+        Connection owner;
+        boolean inUse;
+        boolean settingsChanged;
+        final List<ResultSet> openResults = new ArrayList<>(1);
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        void checkOut(Connection owner) {
+            this.owner = owner;
+            this.inUse = true;
+        }
+
+        void checkIn() {
+            inUse = false;
+            owner = null;
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                if (settingsChanged) {
+                    statement.setFetchSize(0);
+                    statement.setMaxRows(0);
+                    statement.setQueryTimeout(0);
+                    settingsChanged = false;
+                }
+            } catch (SQLException e) {
+                // Leave it to the driver; the next execute will surface any real problem
+            } finally {
+                openResults.clear();
+            }
+        }
+
+        private static boolean isClosedQuietly(ResultSet rs) {
+            try {
+                return rs.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (inUse) {
+                        checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + statement;
+                default:
+                    break;
+            }
+
+            if (!inUse) {
+                throw new SQLException("Statement is closed");
+            }
+
+            if (name.equals("setFetchSize") || name.equals("setMaxRows") || name.equals("setQueryTimeout")) {
+                settingsChanged = true;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof ResultSet rs) {
+                // Re-executing closes the previous result, so only keep the ones still open
+                openResults.removeIf(CachedStatement::isClosedQuietly);
+                openResults.add(rs);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.amalixshop.database;
+
+import com.amalixshop.config.DatabaseConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Reads a large result set row by row with bounded memory.
+ *
+ * By default the PostgreSQL driver reads the whole result into memory before
+ * returning the first row. It only fetches in batches (a server-side cursor)
+ * when the statement has a fetch size and the connection is not in autocommit,
+ * so this runs the query that way and hands each row to the caller as it arrives.
+ * Only DB_STREAM_FETCH_SIZE rows are held at a time.
+ *
+ * The handler must not keep the ResultSet; copy what it needs out of the current row.
+ */
+public final class StreamingQuery {
+
+    private static final int FETCH_SIZE = DatabaseConfig.getInt("DB_STREAM_FETCH_SIZE");
+
+    private StreamingQuery() {}
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void handle(ResultSet row) throws SQLException;
+    }
+
+    /**
+     * Run a read-only query on a read connection and pass every row to handler.
+     * @return number of rows handled
+     */
+    public static long forEachRow(String sql, RowHandler handler, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            return forEachRow(conn, sql, handler, params);
+        }
+    }
+
+    /**
+     * Map every row with mapper, on the caller's connection, and pass the results
+     * to action. The mapper's columns are resolved once, on the first row.
+     * @return number of rows handled
+     */
+    public static <T> long forEachRow(Connection conn, String sql, RowMapper<T> mapper,
+                                      Consumer<? super T> action, Object... params) throws SQLException {
+        return forEachRow(conn, sql, new RowHandler() {
+            private RowMapper.Bound<T> bound;
+
+            @Override
+            public void handle(ResultSet row) throws SQLException {
+                if (bound == null) {
+                    bound = mapper.bind(row);
+                }
+                action.accept(bound.map());
+            }
+        }, params);
+    }
+
+    /**
+     * Same on the caller's connection. If it is in autocommit, the read runs in a
+     * transaction of its own and autocommit is restored afterwards; inside a
+     * {@link UnitOfWork} it simply joins the unit's transaction.
+     */
+    public static long forEachRow(Connection conn, String sql, RowHandler handler, Object... params)
+            throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        if (autoCommit) {
+            conn.setAutoCommit(false);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+
+            long rows = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs);
+                    rows++;
+                }
+            }
+            return rows;
+
+        } finally {
+            if (autoCommit) {
+                // Nothing was written; end the read transaction and put the connection back as it was
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.amalixshop.database;
+
+import com.amalixshop.utils.AppLogger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds one pooled connection to the current thread for the length of a logical
+ * operation, so every DAO call made inside it shares that connection and its
+ * transaction.
+ *
+ * <pre>
+ * try (UnitOfWork uow = UnitOfWork.begin()) {
+ *     ... DAO calls ...
+ *     uow.commit();
+ * }
+ * </pre>
+ *
+ * While a unit is open, {@link DatabaseConnection#getConnection()} and
+ * {@link DatabaseConnection#getReadConnection()} hand out a view of the bound
+ * connection: closing it does nothing, commit()/setAutoCommit() are left to the
+ * unit, and rollback() marks the unit rollback-only. Closing a unit that was not
+ * committed rolls it back. Units nest: an inner begin() joins the outer one and
+ * only the outermost commit reaches the database.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final AppLogger LOG = AppLogger.getLogger(UnitOfWork.class);
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final Scope scope;
+    private final boolean outermost;
+    private boolean committed;
+    private boolean closed;
+
+    private UnitOfWork(Scope scope, boolean outermost) {
+        this.scope = scope;
+        this.outermost = outermost;
+    }
+
+    /**
+     * Start a unit of work on the primary, or join the one already open on this thread.
+     */
+    public static UnitOfWork begin() throws SQLException {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            return new UnitOfWork(scope, false);
+        }
+
+        Connection conn = DatabaseConnection.getConnection();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+
+        scope = new Scope(conn);
+        CURRENT.set(scope);
+        return new UnitOfWork(scope, true);
+    }
+
+    // Connection DAOs should use while a unit is open on this thread, or null
+    static Connection currentConnection() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.view : null;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Run action once the unit open on this thread has committed, or right away
+     * when none is open (the write already auto-committed). Dropped on rollback.
+     * For caches that must not be refilled from the old rows while the
+     * transaction is still in flight.
+     */
+    public static void afterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.afterCommit.add(action);
+        }
+    }
+
+    /**
+     * Commit the work. Inside a nested unit this only records that the inner part
+     * succeeded; the outermost unit does the actual commit.
+     */
+    public void commit() throws SQLException {
+        if (closed || committed) {
+            throw new SQLException("Unit of work already " + (closed ? "closed" : "committed"));
+        }
+        if (scope.rollbackOnly) {
+            throw new SQLException("Unit of work was marked rollback-only");
+        }
+
+        committed = true;
+        if (outermost) {
+            scope.connection.commit();
+            DatabaseConnection.recordWrite(scope.connection);
+            runAfterCommit();
+        }
+    }
+
+    private void runAfterCommit() {
+        for (Runnable action : scope.afterCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The transaction is committed either way
+                LOG.error("Error in after-commit action: {}", e.getMessage());
+            }
+        }
+        scope.afterCommit.clear();
+    }
+
+    public void setRollbackOnly() {
+        scope.rollbackOnly = true;
+    }
+
+    public boolean isRollbackOnly() {
+        return scope.rollbackOnly;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (!committed) {
+            scope.rollbackOnly = true;
+        }
+        if (!outermost) {
+            return;
+        }
+
+        CURRENT.remove();
+        scope.closed = true;
+        try {
+            if (!committed) {
+                scope.connection.rollback();
+            }
+        } catch (SQLException e) {
+            LOG.error("Error rolling back unit of work: {}", e.getMessage());
+        } finally {
+            try {
+                // Back to the pool, which restores auto-commit
+                scope.connection.close();
+            } catch (SQLException e) {
+                LOG.error("Error releasing unit of work connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static final class Scope implements InvocationHandler {
+        final Connection connection;
+        final Connection view;
+        final List<Runnable> afterCommit = new ArrayList<>();
+        volatile boolean rollbackOnly;
+        volatile boolean closed;
+
+        Scope(Connection connection) {
+            this.connection = connection;
+            this.view = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    this
+            );
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                case "commit":
+                case "setAutoCommit":
+                case "setReadOnly":
+                    // The unit owns the connection's lifecycle and transaction
+                    return null;
+                case "rollback":
+                    if (args == null) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "isClosed":
+                    return closed;
+                case "getAutoCommit":
+                    return false;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "UnitOfWork[" + connection + "]";
+            }
+
+            if (closed) {
+                throw new SQLException("Unit of work is closed", "08003");
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
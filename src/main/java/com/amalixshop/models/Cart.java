@@ -4,8 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Cart {
-    private String cartId;
-    private String customerId;
+    private int cartId;
+    private int customerId;
     private List<CartItem> items;
     private double totalAmount;
 
@@ -14,7 +14,7 @@ public class Cart {
         this.totalAmount = 0.0;
     }
 
-    public Cart(String cartId, String customerId) {
+    public Cart(int cartId, int customerId) {
         this();
         this.cartId = cartId;
         this.customerId = customerId;
@@ -25,11 +25,11 @@ public class Cart {
     }
 
     // GETTERS ONLY
-    public String getCartId() {
+    public int getCartId() {
         return cartId;
     }
 
-    public String getCustomerId() {
+    public int getCustomerId() {
         return customerId;
     }
 
@@ -3,14 +3,14 @@ package com.amalixshop.models;
 import java.time.LocalDateTime;
 
 public class CartItem {
-    private String cartItemId;
-    private String cartId;
-    private String productId;
+    private int cartItemId;
+    private int cartId;
+    private int productId;
     private int quantity;
     private String productName;
     private double price;
 
-    public CartItem(String cartItemId, String cartId, String productId, int quantity) {
+    public CartItem(int cartItemId, int cartId, int productId, int quantity) {
         this.cartItemId = cartItemId;
         this.cartId = cartId;
         this.productId = productId;
@@ -25,22 +25,22 @@ public class CartItem {
         this.productName = productName;
     }
 
-    public void setProductId(String productId) {
+    public void setProductId(int productId) {
         this.productId = productId;
     }
 
 
 
     // GETTERS ONLY
-    public String getCartItemId() {
+    public int getCartItemId() {
         return cartItemId;
     }
 
-    public String getCartId() {
+    public int getCartId() {
         return cartId;
     }
 
-    public String getProductId() {
+    public int getProductId() {
         return productId;
     }
 
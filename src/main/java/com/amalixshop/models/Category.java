@@ -1,9 +1,11 @@
 package com.amalixshop.models;
 
+import com.amalixshop.utils.EncryptionUtil;
+
 import java.sql.Timestamp;
 
 public class Category {
-    private  String categoryId;
+    private  int categoryId;
     private final String categoryName;
     private final String description;
 
@@ -11,7 +13,7 @@ public class Category {
         this.categoryName = categoryName;
         this.description = description;
     }
-    public Category(String categoryId, String categoryName, String description) {
+    public Category(int categoryId, String categoryName, String description) {
         this.categoryId = categoryId;
         this.categoryName = categoryName;
         this.description = description;
@@ -20,9 +22,11 @@ public class Category {
 
 
     // Getters only
-    public String getCategoryId() {
+    public int getCategoryId() {
         return categoryId;
     }
+    // Opaque ID for display; computed on demand, not stored
+    public String getCategoryToken() { return EncryptionUtil.encrypt(categoryId); }
     public String getCategoryName() { return categoryName; }
     public String getDescription() { return description; }
 
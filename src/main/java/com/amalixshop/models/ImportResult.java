@@ -0,0 +1,62 @@
+package com.amalixshop.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    private long totalRows;
+    private long inserted;
+    private long updated;
+    private long rejected;
+    private final List<RowError> errors = new ArrayList<>();
+    private String failure;     // Whole-file problem (bad CSV, database error); nothing was imported
+    private long elapsedMillis;
+
+    // Getters and Setters
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    // First rejected rows, in file order (capped, see getRejected() for the total)
+    public List<RowError> getErrors() { return errors; }
+
+    public String getFailure() { return failure; }
+    public void setFailure(String failure) { this.failure = failure; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    public static class RowError {
+        private final long rowNumber;
+        private final String sku;
+        private final String message;
+
+        public RowError(long rowNumber, String sku, String message) {
+            this.rowNumber = rowNumber;
+            this.sku = sku;
+            this.message = message;
+        }
+
+        // 1-based data row, not counting the header
+        public long getRowNumber() { return rowNumber; }
+        public String getSku() { return sku; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Row " + rowNumber + (sku != null && !sku.isEmpty() ? " (" + sku + ")" : "") + ": " + message;
+        }
+    }
+}
@@ -1,13 +1,15 @@
 // Order.java
 package com.amalixshop.models;
 
+import com.amalixshop.utils.EncryptionUtil;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Order {
-    private String orderId;
-    private String customerId;
+    private int orderId;
+    private int customerId;
     private LocalDateTime orderDate;
     private double totalAmount;
     private String shippingAddress;
@@ -21,7 +23,7 @@ public class Order {
     // Constructors
     public Order() {}
 
-    public Order(String orderId, String customerId, LocalDateTime orderDate,
+    public Order(int orderId, int customerId, LocalDateTime orderDate,
                  double totalAmount, String shippingAddress, String billingAddress,
                  String status, String paymentMethod, String paymentStatus, String notes) {
         this.orderId = orderId;
@@ -37,11 +39,14 @@ public class Order {
     }
 
     // Getters and Setters
-    public String getOrderId() { return orderId; }
-    public void setOrderId(String orderId) { this.orderId = orderId; }
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
+
+    // Opaque ID for display; computed on demand, not stored
+    public String getOrderToken() { return EncryptionUtil.encrypt(orderId); }
 
-    public String getCustomerId() { return customerId; }
-    public void setCustomerId(String customerId) { this.customerId = customerId; }
+    public int getCustomerId() { return customerId; }
+    public void setCustomerId(int customerId) { this.customerId = customerId; }
 
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
@@ -2,9 +2,9 @@
 package com.amalixshop.models;
 
 public class OrderItem {
-    private String orderItemId;
-    private String orderId;
-    private String productId;
+    private int orderItemId;
+    private int orderId;
+    private int productId;
     private int quantity;
     private double unitPrice;
     private double subtotal;
@@ -13,7 +13,7 @@ public class OrderItem {
     // Constructors
     public OrderItem() {}
 
-    public OrderItem(String orderItemId, String orderId, String productId,
+    public OrderItem(int orderItemId, int orderId, int productId,
                      int quantity, double unitPrice) {
         this.orderItemId = orderItemId;
         this.orderId = orderId;
@@ -24,14 +24,14 @@ public class OrderItem {
     }
 
     // Getters and Setters
-    public String getOrderItemId() { return orderItemId; }
-    public void setOrderItemId(String orderItemId) { this.orderItemId = orderItemId; }
+    public int getOrderItemId() { return orderItemId; }
+    public void setOrderItemId(int orderItemId) { this.orderItemId = orderItemId; }
 
-    public String getOrderId() { return orderId; }
-    public void setOrderId(String orderId) { this.orderId = orderId; }
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
 
-    public String getProductId() { return productId; }
-    public void setProductId(String productId) { this.productId = productId; }
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
 
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) {
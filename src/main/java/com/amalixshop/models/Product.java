@@ -1,15 +1,20 @@
 package com.amalixshop.models;
 
+import com.amalixshop.utils.EncryptionUtil;
+
+import java.time.LocalDateTime;
+
 public class Product {
-    private String productId;
+    private int productId;
     private final String productName;
     private final String description;
     private final double price;
-    private final String categoryId;
+    private final int categoryId;
     private String categoryName;
     private int stockQuantity;
+    private LocalDateTime createdAt;
 
-    public Product(String productName, String description, double price, String categoryId) {
+    public Product(String productName, String description, double price, int categoryId) {
         this.productName = productName;
         this.description = description;
         this.price = price;
@@ -17,21 +22,26 @@ public class Product {
     }
 
     // Getters
-    public String getProductId() { return productId; }
+    public int getProductId() { return productId; }
     public String getProductName() { return productName; }
     public String getDescription() { return description; }
     public double getPrice() { return price; }
-    public String getCategoryId() { return categoryId; }
+    public int getCategoryId() { return categoryId; }
     public String getCategoryName() { return categoryName; } // Add this
     public int getStockQuantity() {
         return stockQuantity;
     }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    // Opaque ID for display; computed on demand, not stored
+    public String getProductToken() { return EncryptionUtil.encrypt(productId); }
 
 
     // Setters
-    public void setProductId(String productId) { this.productId = productId; }
+    public void setProductId(int productId) { this.productId = productId; }
     public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
     public void setStockQuantity(int stockQuantity) {
         this.stockQuantity = stockQuantity;
     }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.amalixshop.models;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts for the dashboard filters, for one search. Each facet ignores its own
+ * filter and applies the others: category counts say what picking that category
+ * would return with the current query and price range, and the price histogram
+ * covers the current query and category at any price.
+ */
+public class ProductFacets {
+    private final List<CategoryFacet> categories = new ArrayList<>();
+    private final List<PriceBucket> priceBuckets = new ArrayList<>();
+    private long total;       // all categories, within the price range
+    private long inStock;
+
+    // Getters and Setters
+    public List<CategoryFacet> getCategories() { return categories; }
+    public List<PriceBucket> getPriceBuckets() { return priceBuckets; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getInStock() { return inStock; }
+    public void setInStock(long inStock) { this.inStock = inStock; }
+
+    public CategoryFacet getCategory(String categoryName) {
+        for (CategoryFacet facet : categories) {
+            if (facet.getCategoryName().equals(categoryName)) {
+                return facet;
+            }
+        }
+        return null;
+    }
+
+    public static class CategoryFacet {
+        private final String categoryName;
+        private final long count;
+        private final long inStock;
+
+        public CategoryFacet(String categoryName, long count, long inStock) {
+            this.categoryName = categoryName;
+            this.count = count;
+            this.inStock = inStock;
+        }
+
+        public String getCategoryName() { return categoryName; }
+        public long getCount() { return count; }
+        public long getInStock() { return inStock; }
+    }
+
+    // Products priced from min up to max; max is inclusive only for the last bucket
+    public static class PriceBucket {
+        private final double min;
+        private final double max;
+        private final long count;
+
+        public PriceBucket(double min, double max, long count) {
+            this.min = min;
+            this.max = max;
+            this.count = count;
+        }
+
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+        public long getCount() { return count; }
+
+        @Override
+        public String toString() {
+            return String.format("₵%.2f - ₵%.2f: %d", min, max, count);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.amalixshop.models;
+
+import java.util.List;
+
+/**
+ * One page of catalog results, as card-sized summaries. For browsing, the last product doubles as the
+ * cursor for the page after it, so the next query seeks past it instead of
+ * counting an OFFSET. Ranked search pages are offset-based and carry the total
+ * number of matches.
+ */
+public class ProductPage {
+    private final List<ProductSummary> products;
+    private final boolean hasMore;
+    private final long totalCount;   // -1 when the query didn't count (keyset pages)
+    private final boolean approximate;   // nothing matched exactly; these are similar spellings
+
+    public ProductPage(List<ProductSummary> products, boolean hasMore) {
+        this(products, hasMore, -1);
+    }
+
+    public ProductPage(List<ProductSummary> products, boolean hasMore, long totalCount) {
+        this(products, hasMore, totalCount, false);
+    }
+
+    public ProductPage(List<ProductSummary> products, boolean hasMore, long totalCount, boolean approximate) {
+        this.products = products;
+        this.hasMore = hasMore;
+        this.totalCount = totalCount;
+        this.approximate = approximate;
+    }
+
+    // Getters only
+    public List<ProductSummary> getProducts() { return products; }
+    public boolean hasMore() { return hasMore; }
+    public long getTotalCount() { return totalCount; }
+    public boolean isApproximate() { return approximate; }
+
+    public ProductSummary getLast() {
+        return products.isEmpty() ? null : products.get(products.size() - 1);
+    }
+}
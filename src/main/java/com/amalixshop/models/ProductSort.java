@@ -0,0 +1,31 @@
+package com.amalixshop.models;
+
+/**
+ * Catalog orderings offered on the dashboard. Each one is a total order
+ * (product_id breaks ties), which is what keyset paging needs.
+ */
+public enum ProductSort {
+    DEFAULT("Default"),
+    NEWEST("Newest"),
+    PRICE_ASC("Price: Low to High"),
+    PRICE_DESC("Price: High to Low"),
+    NAME("Name A-Z");
+
+    private final String label;
+
+    ProductSort(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+
+    // Sort combo box text back to a sort; unknown or null means DEFAULT
+    public static ProductSort fromLabel(String label) {
+        for (ProductSort sort : values()) {
+            if (sort.label.equals(label)) {
+                return sort;
+            }
+        }
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,40 @@
+package com.amalixshop.models;
+
+import com.amalixshop.utils.EncryptionUtil;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a catalog card shows: name, price, category and stock, without the
+ * description. Listing, paging and search queries return these; the full
+ * {@link Product} is fetched only when someone opens its details.
+ */
+public class ProductSummary {
+    private final int productId;
+    private final String productName;
+    private final double price;
+    private final String categoryName;
+    private final int stockQuantity;
+    private final LocalDateTime createdAt;   // keyset cursor for the "Newest" sort
+
+    public ProductSummary(int productId, String productName, double price, String categoryName,
+                          int stockQuantity, LocalDateTime createdAt) {
+        this.productId = productId;
+        this.productName = productName;
+        this.price = price;
+        this.categoryName = categoryName;
+        this.stockQuantity = stockQuantity;
+        this.createdAt = createdAt;
+    }
+
+    // Getters only
+    public int getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public double getPrice() { return price; }
+    public String getCategoryName() { return categoryName; }
+    public int getStockQuantity() { return stockQuantity; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    // Opaque ID for display; computed on demand, not stored
+    public String getProductToken() { return EncryptionUtil.encrypt(productId); }
+}
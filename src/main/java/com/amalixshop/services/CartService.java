@@ -1,21 +1,30 @@
 package com.amalixshop.services;
 
 import com.amalixshop.dao.CartDAO;
+import com.amalixshop.database.UnitOfWork;
 import com.amalixshop.models.Cart;
 import com.amalixshop.models.CartItem;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.utils.AppLogger;
 
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 public class CartService {
+    private static final AppLogger LOG = AppLogger.getLogger(CartService.class);
+
     private final CartDAO cartDAO = new CartDAO();
 
     // Get or create cart for customer
     public Cart getOrCreateCart(String customerId) {
-        Cart cart = cartDAO.getCartByCustomerId(customerId);
+        int customer = EncryptionUtil.decrypt(customerId);
+        Cart cart = cartDAO.getCartByCustomerId(customer);
 
         if (cart == null) {
-            String cartId = cartDAO.createCart(customerId);
-            if (cartId != null) {
-                cart = new Cart(cartId, customerId);
+            int cartId = cartDAO.createCart(customer);
+            if (cartId > 0) {
+                cart = new Cart(cartId, customer);
             }
         }
 
@@ -24,48 +33,80 @@ public class CartService {
 
     // Get cart by customer ID
     public Cart getCartByCustomerId(String customerId) {
-        return cartDAO.getCartByCustomerId(customerId);
+        return cartDAO.getCartByCustomerId(EncryptionUtil.decrypt(customerId));
     }
 
     // Add product to cart
-    public boolean addToCart(String customerId, String productId, int quantity) {
+    public boolean addToCart(String customerId, int productId, int quantity) {
         if (quantity <= 0) {
             return false;
         }
 
-        Cart cart = getOrCreateCart(customerId);
-        if (cart == null) {
+        // One connection and one commit for the lookup, the insert and the timestamp
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            int customer = EncryptionUtil.decrypt(customerId);
+            int cartId = cartDAO.getCartIdByCustomerId(customer);
+            if (cartId <= 0) {
+                cartId = cartDAO.createCart(customer);
+            }
+            if (cartId <= 0) {
+                return false;
+            }
+
+            boolean added = cartDAO.addItemToCart(cartId, productId, quantity);
+            if (added) {
+                uow.commit();
+            }
+            return added;
+
+        } catch (SQLException e) {
+            LOG.error("Error adding to cart: {}", e.getMessage());
             return false;
         }
-
-        String cartId = cart.getCartId();
-        return cartDAO.addItemToCart(cartId, productId, quantity);
     }
 
     // Update item quantity in cart
-    public boolean updateCartItemQuantity(String customerId, String productId, int quantity) {
+    public boolean updateCartItemQuantity(String customerId, int productId, int quantity) {
         if (quantity <= 0) {
             return removeFromCart(customerId, productId);
         }
 
-        Cart cart = getCartByCustomerId(customerId);
-        if (cart == null) {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            int cartId = cartDAO.getCartIdByCustomerId(EncryptionUtil.decrypt(customerId));
+            if (cartId <= 0) {
+                return false;
+            }
+
+            boolean updated = cartDAO.updateItemQuantity(cartId, productId, quantity);
+            if (updated) {
+                uow.commit();
+            }
+            return updated;
+
+        } catch (SQLException e) {
+            LOG.error("Error updating cart item quantity: {}", e.getMessage());
             return false;
         }
-
-        String cartId = cart.getCartId();
-        return cartDAO.updateItemQuantity(cartId, productId, quantity);
     }
 
     // Remove item from cart
-    public boolean removeFromCart(String customerId, String productId) {
-        Cart cart = getCartByCustomerId(customerId);
-        if (cart == null) {
+    public boolean removeFromCart(String customerId, int productId) {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            int cartId = cartDAO.getCartIdByCustomerId(EncryptionUtil.decrypt(customerId));
+            if (cartId <= 0) {
+                return false;
+            }
+
+            boolean removed = cartDAO.removeItemFromCart(cartId, productId);
+            if (removed) {
+                uow.commit();
+            }
+            return removed;
+
+        } catch (SQLException e) {
+            LOG.error("Error removing from cart: {}", e.getMessage());
             return false;
         }
-
-        String cartId = cart.getCartId();
-        return cartDAO.removeItemFromCart(cartId, productId);
     }
 
     // Get cart items count
@@ -92,37 +133,77 @@ public class CartService {
 
     // Clear entire cart
     public boolean clearCart(String customerId) {
-        Cart cart = getCartByCustomerId(customerId);
-        if (cart == null) {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
+            int cartId = cartDAO.getCartIdByCustomerId(EncryptionUtil.decrypt(customerId));
+            if (cartId <= 0) {
+                return false;
+            }
+
+            boolean cleared = cartDAO.clearCart(cartId);
+            if (cleared) {
+                uow.commit();
+            }
+            return cleared;
+
+        } catch (SQLException e) {
+            LOG.error("Error clearing cart: {}", e.getMessage());
             return false;
         }
-
-        String cartId = cart.getCartId();
-        return cartDAO.clearCart(cartId);
     }
 
     // Check if product is in cart
-    public boolean isProductInCart(String customerId, String productId) {
+    public boolean isProductInCart(String customerId, int productId) {
         Cart cart = getCartByCustomerId(customerId);
         if (cart == null) {
             return false;
         }
 
         return cart.getItems().stream()
-                .anyMatch(item -> item.getProductId().equals(productId));
+                .anyMatch(item -> item.getProductId() == productId);
     }
 
     // Get cart item quantity for a product
-    public int getProductQuantityInCart(String customerId, String productId) {
+    public int getProductQuantityInCart(String customerId, int productId) {
         Cart cart = getCartByCustomerId(customerId);
         if (cart == null) {
             return 0;
         }
 
         return cart.getItems().stream()
-                .filter(item -> item.getProductId().equals(productId))
+                .filter(item -> item.getProductId() == productId)
                 .mapToInt(CartItem::getQuantity)
                 .findFirst()
                 .orElse(0);
     }
-}
\ No newline at end of file
+
+    // ==================== ASYNC VARIANTS ====================
+    // Same operations on a virtual thread; use AsyncUtil.onFxThread to get back to the UI.
+
+    public CompletableFuture<Cart> getOrCreateCartAsync(String customerId) {
+        return AsyncUtil.supplyAsync(() -> getOrCreateCart(customerId));
+    }
+
+    public CompletableFuture<Boolean> addToCartAsync(String customerId, int productId, int quantity) {
+        return AsyncUtil.supplyAsync(() -> addToCart(customerId, productId, quantity));
+    }
+
+    public CompletableFuture<Boolean> updateCartItemQuantityAsync(String customerId, int productId, int quantity) {
+        return AsyncUtil.supplyAsync(() -> updateCartItemQuantity(customerId, productId, quantity));
+    }
+
+    public CompletableFuture<Boolean> removeFromCartAsync(String customerId, int productId) {
+        return AsyncUtil.supplyAsync(() -> removeFromCart(customerId, productId));
+    }
+
+    public CompletableFuture<Boolean> clearCartAsync(String customerId) {
+        return AsyncUtil.supplyAsync(() -> clearCart(customerId));
+    }
+
+    public CompletableFuture<Integer> getCartItemCountAsync(String customerId) {
+        return AsyncUtil.supplyAsync(() -> getCartItemCount(customerId));
+    }
+
+    public CompletableFuture<Double> getCartTotalAsync(String customerId) {
+        return AsyncUtil.supplyAsync(() -> getCartTotal(customerId));
+    }
+}
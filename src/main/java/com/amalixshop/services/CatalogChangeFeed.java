@@ -0,0 +1,131 @@
+package com.amalixshop.services;
+
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.dao.ProductDAO;
+import com.amalixshop.database.ChangeListener;
+import com.amalixshop.models.ProductSummary;
+import com.amalixshop.utils.AppLogger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps this client's product caches in step with the database, whoever
+ * made the change.
+ *
+ * Triggers (V7 migration) announce every product, stock and category change on
+ * the catalog_changes channel. Each batch of notifications becomes one query
+ * for the current summaries of the products named in it; those are upserted
+ * into {@link ProductSearchService} and evicted from the DAO's product cache,
+ * and products that no longer exist are removed. A price or stock edit in the
+ * admin screen therefore reaches every running client without a catalog
+ * reload.
+ *
+ * Category changes (a rename touches every product in it), very large batches
+ * and reconnects, after which notifications may have been missed, fall back to
+ * one catch-up from the catalog version the cache is current to.
+ */
+public class CatalogChangeFeed implements ChangeListener.Handler {
+    private static final AppLogger LOG = AppLogger.getLogger(CatalogChangeFeed.class);
+
+    private static final String CHANNEL = "catalog_changes";
+    private static final int MAX_BATCH = DatabaseConfig.getInt("DB_CHANGE_FEED_MAX_BATCH");
+
+    private static final CatalogChangeFeed INSTANCE = new CatalogChangeFeed();
+
+    private final ProductDAO productDAO = new ProductDAO();
+    private final ProductSearchService searchService = ProductSearchService.getShared();
+    private ChangeListener listener;
+
+    private CatalogChangeFeed() {
+    }
+
+    public static CatalogChangeFeed getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start listening in the background, unless DB_CHANGE_FEED is off. Returns immediately.
+     */
+    public synchronized void start() {
+        if (listener != null || !Boolean.parseBoolean(DatabaseConfig.get("DB_CHANGE_FEED"))) {
+            return;
+        }
+        listener = new ChangeListener(CHANNEL, this);
+        listener.start();
+    }
+
+    // True once started: every change reaches the caches through here, reconnects included
+    public synchronized boolean isRunning() {
+        return listener != null;
+    }
+
+    public synchronized void stop() {
+        if (listener != null) {
+            listener.close();
+            listener = null;
+        }
+    }
+
+    @Override
+    public void resync() throws SQLException {
+        ProductDAO.evictAllCached();
+        CategoryService.invalidateFacets();
+        // Nothing loaded means nothing to bring up to date; the first load reads current rows.
+        // Otherwise only what changed since the cache's catalog version is fetched.
+        if (searchService.isInitialized()) {
+            int count = searchService.catchUp();
+            LOG.info("Resynced product cache from the database: {} changes", count);
+        }
+    }
+
+    @Override
+    public void onNotifications(List<String> payloads) throws SQLException {
+        Set<Integer> productIds = new LinkedHashSet<>();
+
+        for (String payload : payloads) {
+            // <table>:<op>:<id>
+            String[] parts = payload.split(":");
+            if (parts.length != 3) {
+                LOG.warn("Ignoring malformed catalog change '{}'", payload);
+                continue;
+            }
+            if ("categories".equals(parts[0])) {
+                resync();
+                return;
+            }
+            productIds.add(Integer.parseInt(parts[2]));
+        }
+
+        if (productIds.size() > MAX_BATCH) {
+            // An import or bulk edit; one streamed delta beats thousands of lookups
+            resync();
+            return;
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        for (Integer productId : productIds) {
+            ProductDAO.evictCached(productId);
+        }
+        CategoryService.invalidateFacets();
+        if (!searchService.isInitialized()) {
+            return;
+        }
+
+        List<ProductSummary> current = productDAO.getProductSummariesByIds(new ArrayList<>(productIds));
+        for (ProductSummary product : current) {
+            searchService.upsert(product);
+            productIds.remove(product.getProductId());
+        }
+        // Whatever wasn't found has been deleted
+        for (Integer productId : productIds) {
+            searchService.remove(productId);
+        }
+        LOG.debug("Applied catalog changes: {} updated, {} removed", current.size(), productIds.size());
+    }
+}
@@ -0,0 +1,186 @@
+package com.amalixshop.services;
+
+import com.amalixshop.models.ProductSummary;
+import com.amalixshop.utils.AppLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.foreign.Arena;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The product summaries of {@link ProductSearchService} saved to local disk, so
+ * the next start can search before it has read anything from the database.
+ *
+ * Layout, big-endian:
+ * <pre>
+ * int    magic "AMXC", int format version
+ * long   catalog version the contents are current to (see V8 migration)
+ * string database URL they came from
+ * int    product count, then per product:
+ *        int id, double price, int stock, long created_at epoch second (MIN_VALUE if null),
+ *        int nanos, string name, string category (length -1 if null)
+ * long   CRC32 of everything above
+ * </pre>
+ * Strings are a short byte length and UTF-8 bytes. Reading maps the file
+ * instead of copying it through a stream, and unmaps it before returning:
+ * Windows won't replace a file that is still mapped, and the next write
+ * replaces it. A file with the wrong magic, format, database or checksum is
+ * ignored, as if there were none.
+ */
+final class CatalogSnapshot {
+    private static final AppLogger LOG = AppLogger.getLogger(CatalogSnapshot.class);
+
+    private static final int MAGIC = 0x414d5843;   // "AMXC"
+    // 2: versions are transaction ids (V8), not sequence values
+    private static final int FORMAT_VERSION = 2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    final long catalogVersion;
+    final List<ProductSummary> products;
+
+    private CatalogSnapshot(long catalogVersion, List<ProductSummary> products) {
+        this.catalogVersion = catalogVersion;
+        this.products = products;
+    }
+
+    /**
+     * Replace the snapshot at file. Written next to it first and moved into place,
+     * so a crash mid-write leaves the previous snapshot intact.
+     */
+    static void write(Path file, String databaseUrl, long catalogVersion,
+                      Collection<ProductSummary> products) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(catalogVersion);
+                writeString(out, databaseUrl);
+                out.writeInt(products.size());
+
+                for (ProductSummary product : products) {
+                    out.writeInt(product.getProductId());
+                    out.writeDouble(product.getPrice());
+                    out.writeInt(product.getStockQuantity());
+                    LocalDateTime createdAt = product.getCreatedAt();
+                    out.writeLong(createdAt != null ? createdAt.toEpochSecond(ZoneOffset.UTC) : NO_DATE);
+                    out.writeInt(createdAt != null ? createdAt.getNano() : 0);
+                    writeString(out, product.getProductName());
+                    writeString(out, product.getCategoryName());
+                }
+                out.flush();
+
+                // Outside the checked stream: the checksum doesn't cover itself
+                new DataOutputStream(raw).writeLong(crc.getValue());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the snapshot at file, or null when there is none or it can't be used
+     *         for databaseUrl
+     */
+    static CatalogSnapshot read(Path file, String databaseUrl) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             Arena arena = Arena.ofConfined()) {
+            long size = channel.size();
+            if (size < Long.BYTES || size > Integer.MAX_VALUE) {
+                LOG.warn("Ignoring catalog snapshot {}: unexpected size {}", file, size);
+                return null;
+            }
+            // Unmapped when the arena closes; everything read is copied out before that
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena).asByteBuffer();
+
+            int bodyLength = (int) size - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodyLength));
+            if (crc.getValue() != buffer.getLong(bodyLength)) {
+                LOG.warn("Ignoring catalog snapshot {}: checksum mismatch", file);
+                return null;
+            }
+
+            ByteBuffer in = buffer.slice(0, bodyLength);
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                LOG.info("Ignoring catalog snapshot {}: not a format this version reads", file);
+                return null;
+            }
+            long catalogVersion = in.getLong();
+            if (!databaseUrl.equals(readString(in))) {
+                LOG.info("Ignoring catalog snapshot {}: saved from another database", file);
+                return null;
+            }
+
+            int count = in.getInt();
+            List<ProductSummary> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int productId = in.getInt();
+                double price = in.getDouble();
+                int stock = in.getInt();
+                long epochSecond = in.getLong();
+                int nanos = in.getInt();
+                LocalDateTime createdAt = epochSecond == NO_DATE ? null
+                        : LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+                String name = readString(in);
+                String category = readString(in);
+                products.add(new ProductSummary(productId, name, price, category, stock, createdAt));
+            }
+            return new CatalogSnapshot(catalogVersion, products);
+
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            LOG.warn("Ignoring catalog snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("String too long for catalog snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
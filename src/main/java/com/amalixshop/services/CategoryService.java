@@ -1,21 +1,114 @@
 package com.amalixshop.services;
 
+import com.amalixshop.config.DatabaseConfig;
 import com.amalixshop.dao.CategoryDAO;
+import com.amalixshop.dao.ProductDAO;
 import com.amalixshop.models.Category;
+import com.amalixshop.models.ProductFacets;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.utils.AppLogger;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class CategoryService {
+    private static final AppLogger LOG = AppLogger.getLogger(CategoryService.class);
+
+    // Categories change rarely; every screen shares one copy, dropped on any category write
+    private static final long CACHE_TTL_NANOS = TimeUnit.MINUTES.toNanos(5);
+    private static volatile List<Category> cachedCategories;
+    private static volatile long cachedAt;
+
+    // Facets per normalized search, least recently used dropped first; cleared by catalog changes
+    private static final int FACET_CACHE_SIZE = DatabaseConfig.getInt("DB_FACET_CACHE_SIZE");
+    private static final long FACET_TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getLong("DB_FACET_CACHE_TTL_MS"));
+    private static final int PRICE_BUCKETS = 8;
+    private static final Map<String, CachedFacets> facetCache = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every invalidation; guarded by facetCache, like the map
+    private static long facetGeneration;
+
     private final CategoryDAO categoryDAO = new CategoryDAO();
+    private final ProductDAO productDAO = new ProductDAO();
 
     public List<Category> getAllCategories() {
+        List<Category> cached = cachedCategories;
+        if (cached != null && System.nanoTime() - cachedAt < CACHE_TTL_NANOS) {
+            return cached;
+        }
+
         try {
-            return categoryDAO.getAllCategories();
+            List<Category> categories = List.copyOf(categoryDAO.getAllCategories());
+            // The DAO returns an empty list on errors too, so don't pin that for the whole TTL
+            if (!categories.isEmpty()) {
+                cachedAt = System.nanoTime();
+                cachedCategories = categories;
+            }
+            return categories;
         } catch (Exception e) {
-            System.err.println("Error fetching categories: " + e.getMessage());
+            LOG.error("Error fetching categories: {}", e.getMessage());
             return List.of();
         }
     }
 
+    public CompletableFuture<List<Category>> getAllCategoriesAsync() {
+        return AsyncUtil.supplyAsync(this::getAllCategories);
+    }
+
+    /**
+     * Per-category counts and a price histogram for a search, so the filters can
+     * show what they would return (see ProductFacets). Searches that differ only
+     * in case or spacing share a cache entry.
+     * @return the facets, or null if they couldn't be computed
+     */
+    public ProductFacets getFacets(String query, String categoryName, Double minPrice, Double maxPrice) {
+        String normalizedQuery = query == null ? "" : query.trim().toLowerCase().replaceAll("\\s+", " ");
+        String key = normalizedQuery + '\u0000' + categoryName + '\u0000' + minPrice + '\u0000' + maxPrice;
+
+        long generation;
+        synchronized (facetCache) {
+            CachedFacets cached = facetCache.get(key);
+            if (cached != null && System.nanoTime() - cached.loadedAt < FACET_TTL_NANOS) {
+                return cached.facets;
+            }
+            generation = facetGeneration;
+        }
+
+        try {
+            ProductFacets facets = productDAO.getFacets(normalizedQuery, categoryName, minPrice, maxPrice, PRICE_BUCKETS);
+            if (facets != null && FACET_CACHE_SIZE > 0) {
+                synchronized (facetCache) {
+                    // Counted before an invalidation that came in meanwhile; don't serve them for the TTL
+                    if (facetGeneration == generation) {
+                        facetCache.put(key, new CachedFacets(facets, System.nanoTime()));
+                        if (facetCache.size() > FACET_CACHE_SIZE) {
+                            facetCache.remove(facetCache.keySet().iterator().next());
+                        }
+                    }
+                }
+            }
+            return facets;
+        } catch (Exception e) {
+            LOG.error("Error computing facets: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public CompletableFuture<ProductFacets> getFacetsAsync(String query, String categoryName,
+                                                           Double minPrice, Double maxPrice) {
+        return AsyncUtil.supplyAsync(() -> getFacets(query, categoryName, minPrice, maxPrice));
+    }
+
+    // Any product, stock or category change can move the counts
+    public static void invalidateFacets() {
+        synchronized (facetCache) {
+            facetGeneration++;
+            facetCache.clear();
+        }
+    }
+
     public String addCategory(String name, String description) {
         try {
             if (name == null || name.trim().isEmpty()) {
@@ -25,14 +118,16 @@ public class CategoryService {
             Category category = new Category(name.trim(), description != null ? description.trim() : "");
 
 
-            return categoryDAO.save(category);
+            int categoryId = categoryDAO.save(category);
+            invalidateCache();
+            return categoryId > 0 ? EncryptionUtil.encrypt(categoryId) : "";
 
         } catch (Exception e) {
             return "Error adding category: " + e.getMessage();
         }
     }
 
-    public boolean updateCategory(String categoryId, String name, String description) {
+    public boolean updateCategory(int categoryId, String name, String description) {
         try {
             if (name == null || name.trim().isEmpty()) {
                 throw new IllegalArgumentException("Category name cannot be empty");
@@ -40,24 +135,33 @@ public class CategoryService {
 
             Category category = new Category(categoryId, name.trim(), description != null ? description.trim() : "");
 
-            return categoryDAO.update(category);
+            boolean updated = categoryDAO.update(category);
+            invalidateCache();
+            return updated;
 
         } catch (Exception e) {
-            System.err.println("Error updating category: " + e.getMessage());
+            LOG.error("Error updating category: {}", e.getMessage());
             return false;
         }
     }
 
 
-    public boolean deleteCategory(String categoryId) {
+    public boolean deleteCategory(int categoryId) {
         try {
-            return categoryDAO.delete(categoryId);
+            boolean deleted = categoryDAO.delete(categoryId);
+            invalidateCache();
+            return deleted;
         } catch (Exception e) {
-            System.err.println("Error deleting category: " + e.getMessage());
+            LOG.error("Error deleting category: {}", e.getMessage());
             return false;
         }
     }
 
+    private static void invalidateCache() {
+        cachedCategories = null;
+        invalidateFacets();
+    }
 
-
-}
\ No newline at end of file
+    private record CachedFacets(ProductFacets facets, long loadedAt) {
+    }
+}
@@ -2,7 +2,10 @@ package com.amalixshop.services;
 
 import com.amalixshop.dao.OrderDAO;
 import com.amalixshop.models.Order;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.EncryptionUtil;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class OrderService {
     private final OrderDAO orderDAO = new OrderDAO();
@@ -23,37 +26,55 @@ public class OrderService {
             billingAddress = shippingAddress;
         }
 
-        return orderDAO.createOrderFromCart(customerId, shippingAddress,
+        int orderId = orderDAO.createOrderFromCart(EncryptionUtil.decrypt(customerId), shippingAddress,
                 billingAddress, paymentMethod);
+        // The new order's token is shown on the confirmation screen
+        return orderId > 0 ? EncryptionUtil.encrypt(orderId) : null;
     }
 
     // Get order by ID
-    public Order getOrderById(String orderId) {
+    public Order getOrderById(int orderId) {
         return orderDAO.getOrderById(orderId);
     }
 
     // Get orders by customer ID
     public List<Order> getOrdersByCustomerId(String customerId) {
-        return orderDAO.getOrdersByCustomerId(customerId);
+        return orderDAO.getOrdersByCustomerId(EncryptionUtil.decrypt(customerId));
     }
 
     // Update order status
-    public boolean updateOrderStatus(String orderId, String status) {
+    public boolean updateOrderStatus(int orderId, String status) {
         return orderDAO.updateOrderStatus(orderId, status);
     }
 
     // Update payment status
-    public boolean updatePaymentStatus(String orderId, String paymentStatus) {
+    public boolean updatePaymentStatus(int orderId, String paymentStatus) {
         return orderDAO.updatePaymentStatus(orderId, paymentStatus);
     }
 
     // Get recent orders
     public List<Order> getRecentOrders(String customerId, int limit) {
-        return orderDAO.getRecentOrders(customerId, limit);
+        return orderDAO.getRecentOrders(EncryptionUtil.decrypt(customerId), limit);
     }
 
     // Get order statistics
     public OrderDAO.OrderStatistics getOrderStatistics(String customerId) {
-        return orderDAO.getOrderStatistics(customerId);
+        return orderDAO.getOrderStatistics(EncryptionUtil.decrypt(customerId));
     }
-}
\ No newline at end of file
+
+    // ==================== ASYNC VARIANTS ====================
+
+    public CompletableFuture<String> createOrderFromCartAsync(String customerId, String shippingAddress,
+                                                              String billingAddress, String paymentMethod) {
+        return AsyncUtil.supplyAsync(() ->
+                createOrderFromCart(customerId, shippingAddress, billingAddress, paymentMethod));
+    }
+
+    public CompletableFuture<List<Order>> getOrdersByCustomerIdAsync(String customerId) {
+        return AsyncUtil.supplyAsync(() -> getOrdersByCustomerId(customerId));
+    }
+
+    public CompletableFuture<OrderDAO.OrderStatistics> getOrderStatisticsAsync(String customerId) {
+        return AsyncUtil.supplyAsync(() -> getOrderStatistics(customerId));
+    }
+}
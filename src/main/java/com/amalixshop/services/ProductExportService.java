@@ -0,0 +1,43 @@
+package com.amalixshop.services;
+
+import com.amalixshop.dao.ProductExportDAO;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.AppLogger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+public class ProductExportService {
+    private static final AppLogger LOG = AppLogger.getLogger(ProductExportService.class);
+
+    private final ProductExportDAO productExportDAO = new ProductExportDAO();
+
+    /**
+     * Export the whole catalog as a CSV that ProductImportService can read back.
+     * @return number of products written
+     */
+    public long exportCsv(Path file) throws SQLException, IOException {
+        long start = System.nanoTime();
+
+        long rows;
+        try (Writer csv = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            rows = productExportDAO.exportProducts(csv);
+        } catch (SQLException | IOException e) {
+            LOG.error("Error exporting products to {}: {}", file, e.getMessage());
+            throw e;
+        }
+
+        LOG.info("Exported {} products to {} in {}ms",
+                rows, file.getFileName(), (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    public CompletableFuture<Long> exportCsvAsync(Path file) {
+        return AsyncUtil.supplyAsync(() -> exportCsv(file));
+    }
+}
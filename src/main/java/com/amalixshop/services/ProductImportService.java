@@ -0,0 +1,71 @@
+package com.amalixshop.services;
+
+import com.amalixshop.dao.ProductImportDAO;
+import com.amalixshop.database.UnitOfWork;
+import com.amalixshop.models.ImportResult;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.AppLogger;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+public class ProductImportService {
+    private static final AppLogger LOG = AppLogger.getLogger(ProductImportService.class);
+
+    private final ProductImportDAO productImportDAO = new ProductImportDAO();
+
+    /**
+     * Import a supplier catalog CSV (sku,product_name,description,category,price,stock_quantity).
+     * Valid rows are inserted or, when the sku already exists, updated - all in one
+     * transaction. Invalid rows are skipped and listed in the result.
+     */
+    public ImportResult importCsv(Path file) {
+        ImportResult result = new ImportResult();
+        long start = System.nanoTime();
+
+        try (Reader csv = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             UnitOfWork uow = UnitOfWork.begin()) {
+            productImportDAO.importProducts(csv, result);
+            uow.commit();
+        } catch (Exception e) {
+            LOG.error("Error importing products from {}: {}", file, e.getMessage());
+            result.setFailure(e.getMessage());
+            result.setInserted(0);
+            result.setUpdated(0);
+            result.setRejected(0);
+            result.getErrors().clear();
+        }
+
+        result.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        LOG.info("Imported {}: {} rows, {} inserted, {} updated, {} rejected in {}ms",
+                file.getFileName(), result.getTotalRows(), result.getInserted(),
+                result.getUpdated(), result.getRejected(), result.getElapsedMillis());
+        for (ImportResult.RowError rowError : result.getErrors()) {
+            LOG.warn("Import rejected {}", rowError);
+        }
+
+        // One refresh for the whole file, not one per product. The change feed does it when running.
+        if (result.isSuccessful() && result.getInserted() + result.getUpdated() > 0
+                && !CatalogChangeFeed.getInstance().isRunning()) {
+            ProductSearchService searchService = ProductSearchService.getShared();
+            if (searchService.isInitialized()) {
+                try {
+                    searchService.reload();
+                } catch (SQLException e) {
+                    // The import itself is committed; only the cache is behind, so try a delta
+                    LOG.error("Error reloading search cache after import: {}", e.getMessage());
+                    searchService.catchUpInBackground();
+                }
+            }
+        }
+        return result;
+    }
+
+    public CompletableFuture<ImportResult> importCsvAsync(Path file) {
+        return AsyncUtil.supplyAsync(() -> importCsv(file));
+    }
+}
@@ -1,89 +1,323 @@
 package com.amalixshop.services;
 
-import com.amalixshop.models.Product;
+import com.amalixshop.config.DatabaseConfig;
+import com.amalixshop.dao.ProductDAO;
+import com.amalixshop.models.ProductSummary;
+import com.amalixshop.utils.AppLogger;
+import com.amalixshop.utils.AsyncUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
+/**
+ * In-memory catalog for autocomplete and quick filtering. Holds product
+ * summaries only; descriptions stay in the database (full-text search covers
+ * them) and are read per product when its details are opened.
+ *
+ * Products are keyed by id and the category index holds ids, so a single
+ * product can be replaced or removed in place ({@link #upsert},
+ * {@link #remove}) - that is how {@link CatalogChangeFeed} keeps it current
+ * without reloading the whole catalog. Text search and suggestions go through
+ * a trigram index ({@link SearchIndex}) that is updated the same way.
+ *
+ * The catalog is also saved to a local snapshot file (see {@link CatalogSnapshot})
+ * stamped with the catalog version it is current to. {@link #warmStart} opens
+ * that file, so search works before the database has been read, and then
+ * fetches only the products changed since the stamp.
+ */
 public class ProductSearchService {
-    private List<Product> productCache;
-    private final Map<String, List<Product>> searchCache = new ConcurrentHashMap<>();
-    private final Map<String, List<Product>> categoryCache = new ConcurrentHashMap<>();
+    private static final AppLogger LOG = AppLogger.getLogger(ProductSearchService.class);
+
+    // One catalog cache for the whole app, so a refresh after a write is seen by every screen
+    private static final ProductSearchService SHARED = new ProductSearchService();
+
+    private static final int MAX_SUGGESTIONS = 10;
+
+    // How long the tombstones a saved snapshot needs are kept for it (see ProductDAO.pruneProductDeletions)
+    private static final int SYNC_RETENTION_DAYS = DatabaseConfig.getInt("DB_CATALOG_SYNC_RETENTION_DAYS");
+
+    // product_id order, like the query that loads it
+    private volatile NavigableMap<Integer, ProductSummary> productCache;
+    // Catalog version (V8) the cache is current to, or -1 when unknown (loaded from a list)
+    private volatile long catalogVersion = -1;
+    // Loads and delta syncs one at a time, so versions only move forward
+    private final Object syncLock = new Object();
+    private final String snapshotFile = DatabaseConfig.get("DB_CATALOG_SNAPSHOT");
+    // Names this process's snapshot version in catalog_sync_clients
+    private final String syncClientId = UUID.randomUUID().toString();
+    private final Map<String, List<ProductSummary>> searchCache = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> categoryCache = new ConcurrentHashMap<>();
+    private final SearchIndex searchIndex = new SearchIndex();
     private final Object cacheLock = new Object();
+    // Bumped whenever searchCache is cleared; guarded by cacheLock
+    private long searchGeneration;
+    private final ProductDAO productDAO = new ProductDAO();
 
-    // For autocomplete suggestions
-    private final Map<String, List<String>> suggestionCache = new ConcurrentHashMap<>();
+    public static ProductSearchService getShared() {
+        return SHARED;
+    }
 
-    public void initializeCache(List<Product> products) {
-        synchronized (cacheLock) {
-            this.productCache = new ArrayList<>(products);
-            buildCaches();
+    public void initializeCache(List<ProductSummary> products) {
+        refreshCache(products);
+    }
+
+    /**
+     * Rebuild the cache straight from the database. Products are streamed in through
+     * a cursor and go directly into the new cache, so the catalog is never held twice
+     * (driver buffer plus list) while loading.
+     * @return number of products cached
+     */
+    public int reload() throws SQLException {
+        synchronized (syncLock) {
+            // Read first: anything committed during the scan is at most fetched again by the next delta
+            long version = productDAO.getCatalogVersion();
+            NavigableMap<Integer, ProductSummary> products = new ConcurrentSkipListMap<>();
+            productDAO.forEachProductSummary(product -> products.put(product.getProductId(), product));
+            replaceCache(products);
+            catalogVersion = version;
+            return products.size();
+        }
+    }
+
+    /**
+     * Make the cache usable as fast as possible at startup: from the snapshot file
+     * when there is a valid one, followed by a delta from the database; otherwise
+     * with a full reload. Saves a new snapshot afterwards, and prunes deletion
+     * tombstones no recent snapshot needs.
+     */
+    public void warmStart() throws SQLException {
+        long start = System.nanoTime();
+        if (loadSnapshot()) {
+            LOG.info("Catalog snapshot loaded: {} products searchable after {}ms",
+                    getCacheSize(), (System.nanoTime() - start) / 1_000_000);
+            catchUp();
+        } else {
+            reload();
+            LOG.info("Catalog loaded from the database: {} products in {}ms",
+                    getCacheSize(), (System.nanoTime() - start) / 1_000_000);
+        }
+        saveSnapshot();
+
+        try {
+            productDAO.pruneProductDeletions(SYNC_RETENTION_DAYS);
+        } catch (SQLException e) {
+            LOG.warn("Could not prune catalog tombstones: {}", e.getMessage());
+        }
+    }
+
+    // True when the snapshot was valid and is now the cache
+    private boolean loadSnapshot() throws SQLException {
+        if (snapshotFile == null || snapshotFile.isBlank()) {
+            return false;
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.read(Path.of(snapshotFile), DatabaseConfig.getUrl());
+        if (snapshot == null) {
+            return false;
+        }
+
+        synchronized (syncLock) {
+            // A version the database hasn't reached means it was restored or recreated since
+            if (snapshot.catalogVersion > productDAO.getCatalogVersion()) {
+                LOG.info("Ignoring catalog snapshot: newer than the database");
+                return false;
+            }
+            refreshCache(snapshot.products);
+            catalogVersion = snapshot.catalogVersion;
+            return true;
+        }
+    }
+
+    /**
+     * Apply what changed in the database since the cache's catalog version:
+     * changed products are upserted, deleted ones removed. Falls back to a full
+     * reload when the version isn't known or the tombstones since it have been
+     * pruned; does nothing before the first load.
+     * @return number of products upserted or removed
+     */
+    public int catchUp() throws SQLException {
+        synchronized (syncLock) {
+            if (productCache == null) {
+                return 0;
+            }
+            if (catalogVersion < 0) {
+                return reload();
+            }
+
+            long since = catalogVersion;
+            long version = productDAO.getCatalogVersion();
+            List<ProductSummary> changed = new ArrayList<>();
+            productDAO.forEachProductSummaryChangedSince(since, changed::add);
+            int[] deleted = productDAO.getProductIdsDeletedSince(since);
+            if (since < productDAO.getPrunedCatalogVersion()) {
+                LOG.info("Catalog cache is older than the kept tombstones, reloading");
+                return reload();
+            }
+
+            for (ProductSummary product : changed) {
+                upsert(product);
+            }
+            for (int productId : deleted) {
+                remove(productId);
+            }
+            catalogVersion = version;
+            return changed.size() + deleted.length;
+        }
+    }
+
+    /**
+     * Write the cache to the snapshot file (DB_CATALOG_SNAPSHOT). Errors are only
+     * logged: without a snapshot the next start just loads from the database.
+     */
+    public void saveSnapshot() {
+        if (snapshotFile == null || snapshotFile.isBlank()) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (productCache == null || catalogVersion < 0) {
+                return;
+            }
+            try {
+                // Recorded first: the next start will ask for the tombstones since this version
+                productDAO.recordSnapshotVersion(syncClientId, catalogVersion);
+            } catch (SQLException e) {
+                LOG.warn("Could not record catalog snapshot version: {}", e.getMessage());
+            }
+            try {
+                CatalogSnapshot.write(Path.of(snapshotFile), DatabaseConfig.getUrl(), catalogVersion,
+                        productCache.values());
+            } catch (IOException e) {
+                LOG.warn("Could not save catalog snapshot: {}", e.getMessage());
+            }
         }
     }
 
     private void buildCaches() {
-        // Build category cache
-        for (Product product : productCache) {
-            String category = product.getCategoryName();
-            categoryCache.computeIfAbsent(category, k -> new ArrayList<>()).add(product);
+        for (ProductSummary product : productCache.values()) {
+            index(product);
         }
+        searchIndex.rebuild(productCache.values());
+    }
 
-        // Build suggestion cache (first 3 letters for autocomplete)
-        for (Product product : productCache) {
-            String name = product.getProductName().toLowerCase();
-            for (int i = 1; i <= Math.min(3, name.length()); i++) {
-                String prefix = name.substring(0, i);
-                suggestionCache.computeIfAbsent(prefix, k -> new ArrayList<>())
-                        .add(product.getProductName());
+    // Add product to the category index; caller holds cacheLock
+    private void index(ProductSummary product) {
+        Integer id = product.getProductId();
+        String category = product.getCategoryName();
+        if (category != null) {
+            categoryCache.computeIfAbsent(category, k -> new ConcurrentSkipListSet<>()).add(id);
+        }
+    }
+
+    private void unindex(ProductSummary product) {
+        Integer id = product.getProductId();
+        String category = product.getCategoryName();
+        if (category != null) {
+            removeFrom(categoryCache, category, id);
+        }
+    }
+
+    private static void removeFrom(Map<String, Set<Integer>> index, String key, Integer id) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key, ids);
+            }
+        }
+    }
+
+    /**
+     * Add a product, or replace the cached one with the same id. Ignored until
+     * the cache has been loaded: the load will include it.
+     */
+    public void upsert(ProductSummary product) {
+        synchronized (cacheLock) {
+            if (productCache == null) {
+                return;
+            }
+            ProductSummary previous = productCache.put(product.getProductId(), product);
+            if (previous != null) {
+                unindex(previous);
+            }
+            index(product);
+            searchIndex.put(product);
+            searchGeneration++;
+            searchCache.clear();
+        }
+    }
+
+    public void remove(int productId) {
+        synchronized (cacheLock) {
+            if (productCache == null) {
+                return;
+            }
+            ProductSummary previous = productCache.remove(productId);
+            if (previous != null) {
+                unindex(previous);
+                searchIndex.remove(productId);
+                searchGeneration++;
+                searchCache.clear();
             }
         }
     }
 
-    public List<Product> search(String query) {
+    public List<ProductSummary> search(String query) {
         if (query == null || query.trim().isEmpty()) {
-            return new ArrayList<>(productCache);
+            return new ArrayList<>(productCache.values());
         }
 
         String normalizedQuery = query.toLowerCase().trim();
 
         // Check cache first
-        if (searchCache.containsKey(normalizedQuery)) {
-            return new ArrayList<>(searchCache.get(normalizedQuery));
+        List<ProductSummary> cached = searchCache.get(normalizedQuery);
+        if (cached != null) {
+            return new ArrayList<>(cached);
         }
 
-        // Perform parallel search
-        List<Product> results = productCache.parallelStream()
-                .filter(product -> matchesQuery(product, normalizedQuery))
-                .collect(Collectors.toList());
+        long generation;
+        synchronized (cacheLock) {
+            generation = searchGeneration;
+        }
 
-        // Cache the results
-        searchCache.put(normalizedQuery, new ArrayList<>(results));
+        // Name or category contains the query, from the trigram postings
+        List<ProductSummary> results = searchIndex.containing(normalizedQuery);
 
-        return results;
-    }
+        // Cache the results, unless a change came in meanwhile: nothing would clear them until the next one
+        synchronized (cacheLock) {
+            if (searchGeneration == generation) {
+                searchCache.put(normalizedQuery, new ArrayList<>(results));
+            }
+        }
 
-    private boolean matchesQuery(Product product, String query) {
-        return product.getProductName().toLowerCase().contains(query) ||
-                product.getDescription().toLowerCase().contains(query) ||
-                product.getCategoryName().toLowerCase().contains(query);
+        return results;
     }
 
-    public List<Product> filterByCategory(String category) {
+    public List<ProductSummary> filterByCategory(String category) {
         if ("All Categories".equals(category) || category == null) {
-            return new ArrayList<>(productCache);
+            return new ArrayList<>(productCache.values());
         }
 
-        return new ArrayList<>(categoryCache.getOrDefault(category, new ArrayList<>()));
+        List<ProductSummary> products = new ArrayList<>();
+        for (Integer id : categoryCache.getOrDefault(category, Set.of())) {
+            ProductSummary product = productCache.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
     }
 
-    public List<Product> filterByPriceRange(double minPrice, double maxPrice) {
-        return productCache.parallelStream()
+    public List<ProductSummary> filterByPriceRange(double minPrice, double maxPrice) {
+        return productCache.values().parallelStream()
                 .filter(product -> product.getPrice() >= minPrice && product.getPrice() <= maxPrice)
                 .collect(Collectors.toList());
     }
 
-    public List<Product> filterByCategoryAndPrice(String category, double minPrice, double maxPrice) {
-        List<Product> categoryProducts = filterByCategory(category);
+    public List<ProductSummary> filterByCategoryAndPrice(String category, double minPrice, double maxPrice) {
+        List<ProductSummary> categoryProducts = filterByCategory(category);
 
         return categoryProducts.parallelStream()
                 .filter(product -> product.getPrice() >= minPrice && product.getPrice() <= maxPrice)
@@ -91,39 +325,63 @@ public class ProductSearchService {
     }
 
     public List<String> getSuggestions(String prefix) {
-        if (prefix == null || prefix.isEmpty()) {
+        if (prefix == null || prefix.isEmpty() || productCache == null) {
             return new ArrayList<>();
         }
 
-        String normalizedPrefix = prefix.toLowerCase();
-        Set<String> suggestions = new LinkedHashSet<>();
-
-        // Get exact prefix matches
-        suggestions.addAll(suggestionCache.getOrDefault(normalizedPrefix, new ArrayList<>()));
-
-        // Also get suggestions for similar prefixes
-        suggestionCache.keySet().stream()
-                .filter(key -> key.startsWith(normalizedPrefix))
-                .map(suggestionCache::get)
-                .flatMap(List::stream)
-                .forEach(suggestions::add);
+        // Distinct names starting with the prefix, any length of it
+        Set<String> names = new LinkedHashSet<>();
+        searchIndex.forEachWithNamePrefix(prefix.toLowerCase(), product -> {
+            names.add(product.getProductName());
+            return names.size() < MAX_SUGGESTIONS;
+        });
+        return new ArrayList<>(names);
+    }
 
-        return new ArrayList<>(suggestions).stream()
-                .limit(10) // Limit to 10 suggestions
-                .collect(Collectors.toList());
+    public void refreshCache(List<ProductSummary> newProducts) {
+        NavigableMap<Integer, ProductSummary> products = new ConcurrentSkipListMap<>();
+        for (ProductSummary product : newProducts) {
+            products.put(product.getProductId(), product);
+        }
+        replaceCache(products);
+        // Nothing says which database state the list reflects
+        catalogVersion = -1;
     }
 
-    public void refreshCache(List<Product> newProducts) {
+    // Takes ownership of products
+    private void replaceCache(NavigableMap<Integer, ProductSummary> products) {
         synchronized (cacheLock) {
-            this.productCache = new ArrayList<>(newProducts);
+            this.productCache = products;
+            searchGeneration++;
             searchCache.clear();
             categoryCache.clear();
-            suggestionCache.clear();
             buildCaches();
         }
     }
 
+    public boolean isInitialized() {
+        return productCache != null;
+    }
+
+    /**
+     * Bring the cache up to date in the background after this process wrote to the
+     * catalog. Does nothing while the change feed runs, as it already does that, or
+     * before the first load.
+     */
+    public void catchUpInBackground() {
+        if (productCache == null || CatalogChangeFeed.getInstance().isRunning()) {
+            return;
+        }
+        AsyncUtil.runAsync(() -> {
+            try {
+                catchUp();
+            } catch (SQLException e) {
+                LOG.warn("Search cache not brought up to date: {}", e.getMessage());
+            }
+        });
+    }
+
     public int getCacheSize() {
         return productCache != null ? productCache.size() : 0;
     }
-}
\ No newline at end of file
+}
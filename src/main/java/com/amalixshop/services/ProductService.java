@@ -2,54 +2,77 @@ package com.amalixshop.services;
 
 import com.amalixshop.dao.ProductDAO;
 import com.amalixshop.dao.InventoryDAO;
+import com.amalixshop.database.UnitOfWork;
 import com.amalixshop.models.Product;
-import com.amalixshop.utils.EncryptionUtil;
+import com.amalixshop.models.ProductPage;
+import com.amalixshop.models.ProductSort;
+import com.amalixshop.models.ProductSummary;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.AppLogger;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ProductService {
+    private static final AppLogger LOG = AppLogger.getLogger(ProductService.class);
+
     private final ProductDAO productDAO = new ProductDAO();
     private final InventoryDAO inventoryDAO = new InventoryDAO();
 
     public boolean saveProduct(Product product, int stockQuantity) {
-        try {
+        // Product and inventory row are written together or not at all
+        try (UnitOfWork uow = UnitOfWork.begin()) {
             // 1. Save product
             int productId = productDAO.insertProduct(product);
 
             // 2. If product saved, create inventory entry
-            if (productId > 0) {
-                return inventoryDAO.createInventoryEntry(productId, stockQuantity);
+            if (productId > 0 && inventoryDAO.createInventoryEntry(productId, stockQuantity)) {
+                uow.commit();
+                ProductSearchService.getShared().catchUpInBackground();
+                CategoryService.invalidateFacets();
+                return true;
             }
             return false;
         } catch (Exception e) {
-            System.err.println("Error saving product: " + e.getMessage());
+            LOG.error("Error saving product: {}", e.getMessage());
             return false;
         }
     }
 
     public boolean updateProduct(Product product, int newStockQuantity) {
-        try {
+        try (UnitOfWork uow = UnitOfWork.begin()) {
             // Update product details
             boolean productUpdated = productDAO.updateProduct(product) > 0;
 
             // Update inventory stock
-            boolean inventoryUpdated = inventoryDAO.updateInventoryStock(
-                    EncryptionUtil.decrypt(product.getProductId()),
+            boolean inventoryUpdated = productUpdated && inventoryDAO.updateInventoryStock(
+                    product.getProductId(),
                     newStockQuantity
             );
 
-            return productUpdated && inventoryUpdated;
+            if (productUpdated && inventoryUpdated) {
+                uow.commit();
+                ProductSearchService.getShared().catchUpInBackground();
+                CategoryService.invalidateFacets();
+                return true;
+            }
+            return false;
         } catch (Exception e) {
-            System.err.println("Error updating product: " + e.getMessage());
+            LOG.error("Error updating product: {}", e.getMessage());
             return false;
         }
     }
 
     public boolean deleteProduct(int productId) {
         try {
-            return productDAO.deleteProduct(productId) > 0;
+            boolean deleted = productDAO.deleteProduct(productId) > 0;
+            if (deleted) {
+                ProductSearchService.getShared().catchUpInBackground();
+                CategoryService.invalidateFacets();
+            }
+            return deleted;
         } catch (Exception e) {
-            System.err.println("Error deleting product: " + e.getMessage());
+            LOG.error("Error deleting product: {}", e.getMessage());
             return false;
         }
     }
@@ -58,12 +81,70 @@ public class ProductService {
         try {
             return productDAO.getAllProducts();
         } catch (Exception e) {
-            System.err.println("Error fetching products: " + e.getMessage());
+            LOG.error("Error fetching products: {}", e.getMessage());
             return List.of();
         }
     }
 
-    public List<Product> searchProducts(String query) {
+    public CompletableFuture<List<Product>> getAllProductsAsync() {
+        return AsyncUtil.supplyAsync(this::getAllProducts);
+    }
+
+    /**
+     * Everything about one product, description included, for its details view.
+     * Catalog pages only carry summaries; the full row comes from the DAO's
+     * product cache, which writes keep current.
+     * @return null if the product doesn't exist (or couldn't be read)
+     */
+    public Product getProductDetails(int productId) {
+        try {
+            return productDAO.getProductById(productId);
+        } catch (Exception e) {
+            LOG.error("Error fetching product details: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public CompletableFuture<Product> getProductDetailsAsync(int productId) {
+        return AsyncUtil.supplyAsync(() -> getProductDetails(productId));
+    }
+
+    // One page of the catalog; pass the previous page's last product to get the next one
+    public ProductPage getProductPage(String query, String categoryName, Double minPrice, Double maxPrice,
+                                      ProductSort sort, ProductSummary after, int pageSize) {
+        try {
+            return productDAO.getProductPage(query, categoryName, minPrice, maxPrice, sort, after, pageSize);
+        } catch (Exception e) {
+            LOG.error("Error fetching product page: {}", e.getMessage());
+            return new ProductPage(List.of(), false);
+        }
+    }
+
+    public CompletableFuture<ProductPage> getProductPageAsync(String query, String categoryName, Double minPrice,
+                                                              Double maxPrice, ProductSort sort, ProductSummary after,
+                                                              int pageSize) {
+        return AsyncUtil.supplyAsync(() ->
+                getProductPage(query, categoryName, minPrice, maxPrice, sort, after, pageSize));
+    }
+
+    // One page of ranked full-text results, with the total match count
+    public ProductPage searchProductPage(String query, String categoryName, Double minPrice, Double maxPrice,
+                                         int offset, int limit) {
+        try {
+            return productDAO.searchProducts(query, categoryName, minPrice, maxPrice, offset, limit);
+        } catch (Exception e) {
+            LOG.error("Error searching products: {}", e.getMessage());
+            return new ProductPage(List.of(), false, 0);
+        }
+    }
+
+    public CompletableFuture<ProductPage> searchProductPageAsync(String query, String categoryName, Double minPrice,
+                                                                 Double maxPrice, int offset, int limit) {
+        return AsyncUtil.supplyAsync(() ->
+                searchProductPage(query, categoryName, minPrice, maxPrice, offset, limit));
+    }
+
+    public List<ProductSummary> searchProducts(String query) {
         return productDAO.searchProducts(query);
     }
 
@@ -71,5 +152,13 @@ public class ProductService {
         return productDAO.getProductsByCategory(categoryName);
     }
 
+    public CompletableFuture<Boolean> saveProductAsync(Product product, int stockQuantity) {
+        return AsyncUtil.supplyAsync(() -> saveProduct(product, stockQuantity));
+    }
+
+    public CompletableFuture<Boolean> updateProductAsync(Product product, int newStockQuantity) {
+        return AsyncUtil.supplyAsync(() -> updateProduct(product, newStockQuantity));
+    }
+
 
 }
\ No newline at end of file
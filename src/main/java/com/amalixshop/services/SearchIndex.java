@@ -0,0 +1,317 @@
+package com.amalixshop.services;
+
+import com.amalixshop.models.ProductSummary;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Trigram index over product names and categories, so {@link ProductSearchService}
+ * answers substring and name-prefix queries without scanning the catalog.
+ *
+ * Each product gets a slot, and every three-character window of its indexed text
+ * gets an entry in that window's posting list: an int[] of slots, ascending because
+ * slots are handed out in order. The indexed text is, lower-cased,
+ * <pre>
+ * NAME_START name END END category END END
+ * </pre>
+ * The END padding makes every substring of up to three characters the start of
+ * some window, and NAME_START marks where a name begins, for prefixes.
+ *
+ * A query of three or more characters intersects the posting lists of its
+ * rarest windows and checks the survivors with contains(): sharing windows
+ * doesn't prove they are adjacent. A shorter query is the
+ * union of all windows starting with it, which is exact.
+ *
+ * Removing or replacing a product only frees its slot (a replaced product is
+ * added again at the end); the index is rebuilt once freed slots outnumber live
+ * ones.
+ */
+final class SearchIndex {
+
+    private static final int GRAM = 3;
+    // Posting lists intersected per query, rarest first; contains() checks the rest
+    private static final int MAX_INTERSECTED = 3;
+    private static final char NAME_START = '\u0002';
+    private static final char END = '\u0000';
+    // Freed slots tolerated before a rebuild is considered
+    private static final int MIN_COMPACT = 1024;
+    private static final int[] NONE = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Window (three chars packed into a long) -> slots containing it
+    private final NavigableMap<Long, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    // Per slot; null once the product was removed or replaced
+    private ProductSummary[] products;
+    private String[] names;
+    private String[] categories;
+    private int slotCount;
+    private int freed;
+
+    SearchIndex() {
+        clear();
+    }
+
+    /**
+     * Replace the whole index. Results come back in the order of products.
+     */
+    void rebuild(Collection<ProductSummary> products) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (ProductSummary product : products) {
+                append(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a product, or replace the indexed one with the same id
+    void put(ProductSummary product) {
+        lock.writeLock().lock();
+        try {
+            free(product.getProductId());
+            append(product);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            free(productId);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products whose name or category contains query, in product id order.
+     * @param query lower-case
+     */
+    List<ProductSummary> containing(String query) {
+        lock.readLock().lock();
+        try {
+            boolean exact = query.length() < GRAM;
+            List<ProductSummary> results = new ArrayList<>();
+            for (int slot : candidates(query)) {
+                ProductSummary product = products[slot];
+                if (product != null
+                        && (exact || names[slot].contains(query) || categories[slot].contains(query))) {
+                    results.add(product);
+                }
+            }
+            // Already sorted unless products were replaced since the last rebuild
+            results.sort(Comparator.comparingInt(ProductSummary::getProductId));
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit products whose name starts with prefix, roughly in product id order,
+     * until visitor returns false.
+     * @param prefix lower-case
+     */
+    void forEachWithNamePrefix(String prefix, Predicate<ProductSummary> visitor) {
+        lock.readLock().lock();
+        try {
+            for (int slot : candidates(NAME_START + prefix)) {
+                ProductSummary product = products[slot];
+                if (product != null && names[slot].startsWith(prefix) && !visitor.test(product)) {
+                    return;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ascending slots whose indexed text contains s; only a superset when s is a gram or longer
+    private int[] candidates(String s) {
+        if (s.isEmpty()) {
+            return NONE;
+        }
+        return s.length() < GRAM ? union(s) : intersection(s);
+    }
+
+    private int[] union(String s) {
+        long from = 0;
+        for (int i = 0; i < s.length(); i++) {
+            from |= (long) s.charAt(i) << (16 * (GRAM - 1 - i));
+        }
+        long to = from | ((1L << (16 * (GRAM - s.length()))) - 1);
+
+        long[] bits = new long[(slotCount + 63) >>> 6];
+        for (Postings list : postings.subMap(from, true, to, true).values()) {
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.slots[i];
+                bits[slot >>> 6] |= 1L << slot;
+            }
+        }
+
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        int[] slots = new int[count];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                slots[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return slots;
+    }
+
+    private int[] intersection(String s) {
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= s.length(); i++) {
+            Postings list = postings.get(gram(s, i));
+            if (list == null) {
+                return NONE;
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        if (lists.size() > MAX_INTERSECTED) {
+            // Common windows barely narrow what the rare ones leave, at the cost of a long walk each
+            lists = lists.subList(0, MAX_INTERSECTED);
+        }
+
+        Postings shortest = lists.get(0);
+        int[] positions = new int[lists.size()];
+        int[] slots = new int[shortest.size];
+        int n = 0;
+
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            int slot = shortest.slots[i];
+            for (int j = 1; j < lists.size(); j++) {
+                Postings other = lists.get(j);
+                int position = other.seek(positions[j], slot);
+                if (position == other.size) {
+                    break candidates;
+                }
+                positions[j] = position;
+                if (other.slots[position] != slot) {
+                    continue candidates;
+                }
+            }
+            slots[n++] = slot;
+        }
+        return Arrays.copyOf(slots, n);
+    }
+
+    private void append(ProductSummary product) {
+        int slot = slotCount++;
+        if (slot == products.length) {
+            products = Arrays.copyOf(products, slot * 2);
+            names = Arrays.copyOf(names, slot * 2);
+            categories = Arrays.copyOf(categories, slot * 2);
+        }
+
+        String name = product.getProductName().toLowerCase();
+        String category = product.getCategoryName() != null ? product.getCategoryName().toLowerCase() : "";
+        products[slot] = product;
+        names[slot] = name;
+        categories[slot] = category;
+        slotById.put(product.getProductId(), slot);
+
+        StringBuilder text = new StringBuilder(name.length() + category.length() + 5)
+                .append(NAME_START).append(name).append(END).append(END);
+        if (!category.isEmpty()) {
+            text.append(category).append(END).append(END);
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            postings.computeIfAbsent(gram(text, i), k -> new Postings()).add(slot);
+        }
+    }
+
+    private void free(int productId) {
+        Integer slot = slotById.remove(productId);
+        if (slot != null) {
+            products[slot] = null;
+            names[slot] = null;
+            categories[slot] = null;
+            freed++;
+        }
+    }
+
+    // Rebuild once most slots are freed; posting lists only shrink that way
+    private void compactIfSparse() {
+        if (freed < MIN_COMPACT || freed < slotCount - freed) {
+            return;
+        }
+        List<ProductSummary> live = new ArrayList<>(slotById.size());
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (products[slot] != null) {
+                live.add(products[slot]);
+            }
+        }
+        live.sort(Comparator.comparingInt(ProductSummary::getProductId));
+        clear();
+        for (ProductSummary product : live) {
+            append(product);
+        }
+    }
+
+    private void clear() {
+        postings.clear();
+        slotById.clear();
+        products = new ProductSummary[16];
+        names = new String[16];
+        categories = new String[16];
+        slotCount = 0;
+        freed = 0;
+    }
+
+    private static long gram(CharSequence text, int start) {
+        return (long) text.charAt(start) << 32 | (long) text.charAt(start + 1) << 16 | text.charAt(start + 2);
+    }
+
+    // Slots in ascending order
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] == slot) {
+                return; // the same window twice in one product
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        /**
+         * Index of the first slot at or after from that is >= slot, or size. Gallops
+         * forward before binary searching, since successive lookups are ascending
+         * and usually land close to the previous one.
+         */
+        int seek(int from, int slot) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && slots[high] < slot) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int found = Arrays.binarySearch(slots, low, high, slot);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.amalixshop.services;
+
+import com.amalixshop.controllers.DashboardController;
+import com.amalixshop.database.DatabaseConnection;
+import com.amalixshop.models.Category;
+import com.amalixshop.utils.AsyncUtil;
+import com.amalixshop.utils.AppLogger;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prepares the customer dashboard while the login screen is showing.
+ *
+ * Pool connections, the category list and the search catalog (from its local
+ * snapshot when there is one) are loaded in parallel on virtual threads; once
+ * categories are cached the dashboard FXML is parsed, and its controller
+ * starts fetching the first product page right away, on the FX thread. The first dashboard
+ * navigation takes that preloaded view instead of parsing on the FX thread.
+ *
+ * Also records time-to-first-dashboard, logged once and readable over JMX as
+ * com.amalixshop:type=Startup.
+ */
+public class WarmupService implements WarmupServiceMXBean {
+    private static final AppLogger LOG = AppLogger.getLogger(WarmupService.class);
+
+    private static final String DASHBOARD_FXML = "com/amalixshop/DashboardView.fxml";
+    // A preloaded dashboard older than this shows data the user shouldn't trust; parse a new one
+    private static final long PRELOAD_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private static final WarmupService INSTANCE = new WarmupService();
+
+    private final CategoryService categoryService = new CategoryService();
+    private final AtomicReference<Preloaded> preloadedDashboard = new AtomicReference<>();
+
+    private volatile long warmupMillis = -1;
+    private volatile long dashboardRequestedAt;
+    private volatile boolean dashboardShown;
+    private volatile boolean productsShown;
+    private volatile long timeToFirstDashboardMillis = -1;
+    private volatile long loginToDashboardMillis = -1;
+
+    private WarmupService() {
+        registerMBean();
+    }
+
+    public static WarmupService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start warming up in the background. Returns immediately.
+     */
+    public CompletableFuture<Void> start() {
+        long start = System.nanoTime();
+
+        CompletableFuture<Void> pool = AsyncUtil.runAsync(() -> DatabaseConnection.getPool().warmUp());
+        CompletableFuture<List<Category>> categories = categoryService.getAllCategoriesAsync();
+        // Search suggestions only; the dashboard doesn't wait for it
+        AsyncUtil.runAsync(() -> {
+            try {
+                ProductSearchService.getShared().warmStart();
+            } catch (Exception e) {
+                LOG.warn("Search catalog not loaded: {}", e.getMessage());
+            }
+        });
+
+        return categories
+                .thenCompose(ignored -> AsyncUtil.runAsync(this::preloadDashboard))
+                .thenCombine(pool, (a, b) -> (Void) null)
+                .whenComplete((ignored, error) -> {
+                    warmupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    if (error != null) {
+                        LOG.warn("Warm-up incomplete after {}ms: {}", warmupMillis, AsyncUtil.unwrap(error).getMessage());
+                    } else {
+                        LOG.info("Warm-up finished in {}ms", warmupMillis);
+                    }
+                });
+    }
+
+    private void preloadDashboard() {
+        URL fxmlUrl = WarmupService.class.getClassLoader().getResource(DASHBOARD_FXML);
+        if (fxmlUrl == null) {
+            return;
+        }
+
+        // Parsing and building the nodes is safe off the FX thread, as they aren't in a
+        // showing scene yet. Nothing else may touch them here: loading the data shows
+        // results as they arrive, on the FX thread, so that starts over there.
+        try {
+            FXMLLoader loader = new FXMLLoader(fxmlUrl);
+            loader.load();
+            DashboardController controller = loader.getController();
+            Platform.runLater(controller::startLoading);
+            preloadedDashboard.set(new Preloaded(loader, System.nanoTime()));
+        } catch (Exception e) {
+            LOG.warn("Could not preload dashboard: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Hand out the preloaded dashboard, once. Returns null when there is none (or it
+     * has gone stale) and the caller should load the FXML itself.
+     */
+    public FXMLLoader takePreloadedDashboard() {
+        Preloaded preloaded = preloadedDashboard.getAndSet(null);
+        if (preloaded == null || System.nanoTime() - preloaded.loadedAt > PRELOAD_MAX_AGE_NANOS) {
+            // Whatever the discarded view had on screen doesn't count
+            productsShown = false;
+            return null;
+        }
+        return preloaded.loader;
+    }
+
+    // ==================== TIME TO FIRST DASHBOARD ====================
+    // The first dashboard counts as ready once it is on the stage and has its
+    // products displayed; a preloaded one may reach those in either order.
+
+    /**
+     * The user has logged in and the dashboard is being opened.
+     */
+    public void markDashboardRequested() {
+        if (dashboardRequestedAt == 0) {
+            dashboardRequestedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The dashboard scene is on the stage.
+     */
+    public void markDashboardShown() {
+        dashboardShown = true;
+        recordFirstDashboard();
+    }
+
+    /**
+     * The dashboard has displayed its products.
+     */
+    public void markDashboardReady() {
+        productsShown = true;
+        recordFirstDashboard();
+    }
+
+    private synchronized void recordFirstDashboard() {
+        if (timeToFirstDashboardMillis >= 0 || !dashboardShown || !productsShown) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        timeToFirstDashboardMillis = now - ManagementFactory.getRuntimeMXBean().getStartTime();
+        loginToDashboardMillis = now - dashboardRequestedAt;
+        LOG.info("Time to first dashboard: {}ms after launch, {}ms after login",
+                timeToFirstDashboardMillis, loginToDashboardMillis);
+    }
+
+    @Override
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    @Override
+    public long getTimeToFirstDashboardMillis() {
+        return timeToFirstDashboardMillis;
+    }
+
+    @Override
+    public long getLoginToDashboardMillis() {
+        return loginToDashboardMillis;
+    }
+
+    private void registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.amalixshop:type=Startup");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            LOG.error("Could not register startup metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    private record Preloaded(FXMLLoader loader, long loadedAt) {
+    }
+}
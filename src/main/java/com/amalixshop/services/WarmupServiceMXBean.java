@@ -0,0 +1,20 @@
+package com.amalixshop.services;
+
+/**
+ * JMX view of {@link WarmupService} startup timings, in milliseconds (-1 until known).
+ * Registered as com.amalixshop:type=Startup
+ */
+public interface WarmupServiceMXBean {
+
+    long getWarmupMillis();
+
+    /**
+     * From JVM start until the first dashboard had its products on screen.
+     */
+    long getTimeToFirstDashboardMillis();
+
+    /**
+     * From the login that opened the first dashboard until its products were on screen.
+     */
+    long getLoginToDashboardMillis();
+}
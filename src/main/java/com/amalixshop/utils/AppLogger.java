@@ -0,0 +1,127 @@
+package com.amalixshop.utils;
+
+import com.amalixshop.config.LogConfig;
+
+/**
+ * Small logging facade.
+ *
+ * Messages use {} placeholders, e.g. log.debug("Loaded {} products", count).
+ * Disabled levels return before anything is built, and enabled ones only copy
+ * the arguments into the ring buffer - formatting and I/O happen on the
+ * {@link AsyncLogAppender} writer thread. Because of that, pass values
+ * (strings, numbers, ids), not objects that are about to change.
+ */
+public final class AppLogger {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final Level THRESHOLD = Level.valueOf(LogConfig.get("LOG_LEVEL").trim().toUpperCase());
+    private static final AsyncLogAppender APPENDER = new AsyncLogAppender(
+            LogConfig.get("LOG_FILE"),
+            LogConfig.getLong("LOG_MAX_FILE_BYTES"),
+            LogConfig.getInt("LOG_MAX_FILES"),
+            Boolean.parseBoolean(LogConfig.get("LOG_CONSOLE")),
+            LogConfig.getInt("LOG_BUFFER_SIZE")
+    );
+
+    private final String name;
+
+    private AppLogger(String name) {
+        this.name = name;
+    }
+
+    public static AppLogger getLogger(Class<?> type) {
+        return new AppLogger(type.getSimpleName());
+    }
+
+    /**
+     * Write out everything still buffered. Called on application exit.
+     */
+    public static void shutdown() {
+        APPENDER.close();
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(THRESHOLD) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    // ==================== DEBUG ====================
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) APPENDER.append(Level.DEBUG, name, message, null, null);
+    }
+
+    public void debug(String template, Object arg) {
+        if (isEnabled(Level.DEBUG)) APPENDER.append(Level.DEBUG, name, template, new Object[]{arg}, null);
+    }
+
+    public void debug(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) APPENDER.append(Level.DEBUG, name, template, new Object[]{arg1, arg2}, null);
+    }
+
+    public void debug(String template, Object... args) {
+        if (isEnabled(Level.DEBUG)) APPENDER.append(Level.DEBUG, name, template, args, null);
+    }
+
+    // ==================== INFO ====================
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) APPENDER.append(Level.INFO, name, message, null, null);
+    }
+
+    public void info(String template, Object arg) {
+        if (isEnabled(Level.INFO)) APPENDER.append(Level.INFO, name, template, new Object[]{arg}, null);
+    }
+
+    public void info(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) APPENDER.append(Level.INFO, name, template, new Object[]{arg1, arg2}, null);
+    }
+
+    public void info(String template, Object... args) {
+        if (isEnabled(Level.INFO)) APPENDER.append(Level.INFO, name, template, args, null);
+    }
+
+    // ==================== WARN ====================
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) APPENDER.append(Level.WARN, name, message, null, null);
+    }
+
+    public void warn(String template, Object arg) {
+        if (isEnabled(Level.WARN)) APPENDER.append(Level.WARN, name, template, new Object[]{arg}, null);
+    }
+
+    public void warn(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) APPENDER.append(Level.WARN, name, template, new Object[]{arg1, arg2}, null);
+    }
+
+    public void warn(String template, Object... args) {
+        if (isEnabled(Level.WARN)) APPENDER.append(Level.WARN, name, template, args, null);
+    }
+
+    // ==================== ERROR ====================
+
+    public void error(String message) {
+        if (isEnabled(Level.ERROR)) APPENDER.append(Level.ERROR, name, message, null, null);
+    }
+
+    public void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) APPENDER.append(Level.ERROR, name, message, null, error);
+    }
+
+    public void error(String template, Object arg) {
+        if (isEnabled(Level.ERROR)) APPENDER.append(Level.ERROR, name, template, new Object[]{arg}, null);
+    }
+
+    public void error(String template, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) APPENDER.append(Level.ERROR, name, template, new Object[]{arg1, arg2}, null);
+    }
+
+    public void error(String template, Object... args) {
+        if (isEnabled(Level.ERROR)) APPENDER.append(Level.ERROR, name, template, args, null);
+    }
+}
@@ -0,0 +1,312 @@
+package com.amalixshop.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log events from a single background thread.
+ *
+ * Callers claim a slot in a fixed-size ring buffer and copy the raw event into
+ * it; they never format, lock or touch the disk. The writer thread drains
+ * whatever has been published, formats it and writes the whole batch with one
+ * flush, rolling the file when it passes the size limit.
+ *
+ * When the buffer is full, DEBUG/INFO events are dropped (and counted) rather
+ * than making the caller wait; WARN/ERROR events wait for a free slot.
+ */
+public final class AsyncLogAppender {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Slot[] ring;
+    private final int mask;
+    // Next sequence to claim (producers) and next sequence to write (writer thread)
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final PrintStream console;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    private BufferedWriter out;
+    private long fileBytes;
+    private boolean fileFailed;
+
+    public AsyncLogAppender(String file, long maxFileBytes, int maxFiles, boolean echoToConsole, int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot(i - capacity);
+        }
+        this.mask = capacity - 1;
+
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        // Keep the real stdout even if System.out gets redirected later
+        this.console = echoToConsole ? System.out : null;
+
+        this.writerThread = new Thread(this::runWriter, "amalixshop-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "amalixshop-log-flush"));
+    }
+
+    /**
+     * Queue an event. Formatting of template/args happens later on the writer thread.
+     */
+    public void append(AppLogger.Level level, String logger, String template, Object[] args, Throwable error) {
+        if (closed) {
+            return;
+        }
+
+        long sequence;
+        while (true) {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= ring.length) {
+                if (level.compareTo(AppLogger.Level.WARN) < 0) {
+                    dropped.increment();
+                    return;
+                }
+                LockSupport.unpark(writerThread);
+                Thread.onSpinWait();
+                if (closed) return;
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        Slot slot = ring[(int) (sequence & mask)];
+        slot.timestamp = System.currentTimeMillis();
+        slot.level = level;
+        slot.logger = logger;
+        slot.thread = Thread.currentThread().getName();
+        slot.template = template;
+        slot.args = args;
+        slot.error = error;
+        slot.published = sequence;   // volatile write: the writer may read the slot now
+
+        if (level.compareTo(AppLogger.Level.WARN) >= 0) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stop accepting events, write out what's buffered and close the file.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== WRITER THREAD ====================
+
+    private void runWriter() {
+        StringBuilder batch = new StringBuilder(8192);
+        long reportedDrops = 0;
+
+        while (true) {
+            long next = consumed.get();
+            int count = 0;
+
+            Slot slot;
+            while ((slot = ring[(int) (next & mask)]).published == next) {
+                format(slot, batch);
+                slot.clear();
+                next++;
+                count++;
+                // Free slots as we go so a burst doesn't have to wait for the whole batch
+                if ((count & 63) == 0) {
+                    consumed.set(next);
+                }
+            }
+            consumed.set(next);
+
+            long drops = dropped.sum();
+            if (drops > reportedDrops) {
+                batch.append(LocalDateTime.now().format(TIMESTAMP))
+                        .append(" WARN  [amalixshop-log-writer] AsyncLogAppender - ")
+                        .append(drops - reportedDrops).append(" log events dropped, buffer full")
+                        .append(System.lineSeparator());
+                reportedDrops = drops;
+            }
+
+            if (batch.length() > 0) {
+                write(batch);
+                batch.setLength(0);
+            } else if (closed && claimed.get() == next) {
+                closeFile();
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void format(Slot slot, StringBuilder sb) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(slot.timestamp), ZoneId.systemDefault());
+        sb.append(time.format(TIMESTAMP)).append(' ');
+        String level = slot.level.name();
+        sb.append(level);
+        for (int i = level.length(); i < 5; i++) sb.append(' ');
+        sb.append(" [").append(slot.thread).append("] ")
+                .append(slot.logger).append(" - ");
+
+        Throwable error = slot.error;
+        Object[] args = slot.args;
+        String template = slot.template != null ? slot.template : "null";
+        int used = 0;
+
+        if (args == null || args.length == 0) {
+            sb.append(template);
+        } else {
+            int from = 0;
+            int at;
+            while (used < args.length && (at = template.indexOf("{}", from)) >= 0) {
+                sb.append(template, from, at).append(args[used++]);
+                from = at + 2;
+            }
+            sb.append(template, from, template.length());
+        }
+
+        // Same convention as SLF4J: a trailing Throwable with no placeholder left is the error
+        if (error == null && args != null && used < args.length && args[args.length - 1] instanceof Throwable t) {
+            error = t;
+        }
+        sb.append(System.lineSeparator());
+
+        if (error != null) {
+            StringWriter trace = new StringWriter();
+            error.printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+    }
+
+    private void write(StringBuilder batch) {
+        String text = batch.toString();
+        if (console != null) {
+            console.print(text);
+            console.flush();
+        }
+        if (file == null || fileFailed) {
+            return;
+        }
+
+        try {
+            if (out == null) {
+                openFile();
+            }
+            out.write(text);
+            out.flush();
+            fileBytes += text.length();
+            if (fileBytes >= maxFileBytes) {
+                roll();
+            }
+        } catch (IOException e) {
+            fileFailed = true;
+            if (console != null) {
+                console.println("Log file disabled, cannot write " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void openFile() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileBytes = Files.size(file);
+    }
+
+    // amalixshop.log -> .1 -> .2 ... the oldest beyond LOG_MAX_FILES is deleted
+    private void roll() throws IOException {
+        closeFile();
+        if (maxFiles > 0) {
+            Files.deleteIfExists(rolledPath(maxFiles));
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                Path from = rolledPath(i);
+                if (Files.exists(from)) {
+                    Files.move(from, rolledPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rolledPath(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        openFile();
+    }
+
+    private Path rolledPath(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Nothing more we can do with it
+            }
+            out = null;
+        }
+    }
+
+    private static final class Slot {
+        // Sequence of the event currently in this slot; written last by the producer
+        volatile long published;
+        long timestamp;
+        AppLogger.Level level;
+        String logger;
+        String thread;
+        String template;
+        Object[] args;
+        Throwable error;
+
+        Slot(long initial) {
+            this.published = initial;
+        }
+
+        void clear() {
+            template = null;
+            args = null;
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.amalixshop.utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Runs blocking service/DAO calls off the JavaFX Application Thread.
+ *
+ * Every task gets its own virtual thread, so many lookups can wait on the
+ * database at the same time without tying up platform threads.
+ */
+public class AsyncUtil {
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("amalixshop-async-", 0).factory());
+
+    /**
+     * Executor that runs callbacks on the JavaFX Application Thread,
+     * e.g. future.thenAcceptAsync(result -> ..., AsyncUtil.fxExecutor())
+     */
+    private static final Executor FX_EXECUTOR = Platform::runLater;
+
+    private AsyncUtil() {}
+
+    /**
+     * Run a blocking call on a virtual thread.
+     * Cancelling the returned future stops a call that hasn't started yet; one
+     * already running finishes, and its result is dropped. It isn't interrupted:
+     * pgjdbc answers an interrupt during socket I/O by closing the connection,
+     * which would cost a pooled connection per superseded search.
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Callable<T> task) {
+        CancellableFuture<T> future = new CancellableFuture<>();
+        future.setTask(EXECUTOR.submit(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }));
+        return future;
+    }
+
+    public static CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static Executor fxExecutor() {
+        return FX_EXECUTOR;
+    }
+
+    /**
+     * Deliver the outcome of a future on the JavaFX Application Thread.
+     * Nothing is delivered if the future was cancelled.
+     */
+    public static <T> void onFxThread(CompletableFuture<T> future,
+                                      Consumer<? super T> onSuccess,
+                                      Consumer<Throwable> onError) {
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            Platform.runLater(() -> {
+                if (error != null) {
+                    onError.accept(unwrap(error));
+                } else {
+                    onSuccess.accept(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancel a pending future if there is one (e.g. a search the user has since replaced).
+     */
+    public static void cancel(Future<?> future) {
+        if (future != null && !future.isDone()) {
+            future.cancel(false);
+        }
+    }
+
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    public static boolean isCancellation(Throwable error) {
+        return unwrap(error) instanceof CancellationException;
+    }
+
+    public static void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    // CompletableFuture.cancel() doesn't reach the task; this one keeps a queued task from starting
+    private static final class CancellableFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> task;
+
+        void setTask(Future<?> task) {
+            this.task = task;
+            if (isCancelled()) {
+                task.cancel(false);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> running = task;
+            if (cancelled && running != null) {
+                running.cancel(false);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -3,11 +3,20 @@ package com.amalixshop.utils;
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Utility class for encrypting/decrypting sensitive data like customer IDs
- * Uses AES encryption for security
+ *
+ * IDs are encoded with {@link IdCodec}: a keyed 64-bit block permutation
+ * written as 11 URL-safe characters. encrypt(int) memoises the resulting
+ * Strings in a bounded {@link IdTokenCache}, so reloading the same catalog
+ * hands out the same String instances instead of new ones.
+ *
+ * Tokens from the previous format (AES over the decimal id, 22 characters)
+ * are still accepted by decrypt.
  */
 public class EncryptionUtil {
 
@@ -15,26 +24,34 @@ public class EncryptionUtil {
     private static final String SECRET_KEY = "MySecretKey123"; // 16 chars = 128 bits
     private static final String ALGORITHM = "AES";
 
+    // Legacy tokens: one padded AES block as unpadded Base64
+    private static final int LEGACY_BLOCK_SIZE = 16;
+    private static final int LEGACY_TOKEN_LENGTH = 22;
+
+    // Slots per direction in the id/token cache; -DID_TOKEN_CACHE_SIZE=0 disables it
+    private static final int CACHE_SIZE = Integer.getInteger("ID_TOKEN_CACHE_SIZE", 65536);
+
+    private static volatile KeyState state = new KeyState(SECRET_KEY);
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final ConcurrentLinkedQueue<LegacyCodec> LEGACY_CODECS = new ConcurrentLinkedQueue<>();
+
+    static {
+        IdTokenCache.registerMBean();
+    }
+
     /**
      * Encrypts an ID for sending to frontend
      * @param Id The  ID to encrypt
-     * @return Encrypted string (URL-safe)
+     * @return Encrypted string (URL-safe, always {@link IdCodec#TOKEN_LENGTH} chars)
      */
     public static String encrypt(int Id) {
-        try {
-            String plainText = String.valueOf(Id);
-            SecretKeySpec secretKey = generateKey();
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-
-            byte[] encryptedBytes = cipher.doFinal(plainText.getBytes(StandardCharsets.UTF_8));
-
-            // Use URL-safe Base64 for web compatibility
-            return Base64.getUrlEncoder().withoutPadding().encodeToString(encryptedBytes);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error encrypting customer ID", e);
+        KeyState current = state;
+        String token = current.cache.token(Id);
+        if (token == null) {
+            token = current.codec.encode(Id);
+            current.cache.put(Id, token);
         }
+        return token;
     }
 
     /**
@@ -43,28 +60,92 @@ public class EncryptionUtil {
      * @return Original customer ID
      */
     public static int decrypt(String encryptedId) {
+        KeyState current = state;
         try {
-            SecretKeySpec secretKey = generateKey();
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
+            if (IdCodec.isToken(encryptedId)) {
+                return current.codec.decode(encryptedId, 0);
+            }
+            return decryptLegacy(current, encryptedId);
+        } catch (Exception e) {
+            throw new RuntimeException("Error decrypting customer ID", e);
+        }
+    }
 
-            byte[] decodedBytes = Base64.getUrlDecoder().decode(encryptedId);
-            byte[] decryptedBytes = cipher.doFinal(decodedBytes);
+    /**
+     * Encrypts a batch of IDs.
+     * @return tokens in the same order as ids
+     */
+    public static String[] encryptAll(int[] ids) {
+        String[] tokens = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            tokens[i] = encrypt(ids[i]);
+        }
+        return tokens;
+    }
 
-            String decryptedText = new String(decryptedBytes, StandardCharsets.UTF_8);
-            return Integer.parseInt(decryptedText);
+    /**
+     * Decrypts a batch of tokens.
+     * @return IDs in the same order as tokens
+     */
+    public static int[] decryptAll(String[] encryptedIds) {
+        int[] ids = new int[encryptedIds.length];
+        for (int i = 0; i < encryptedIds.length; i++) {
+            ids[i] = decrypt(encryptedIds[i]);
+        }
+        return ids;
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Error decrypting customer ID", e);
+    /**
+     * Switch to a new secret. Tokens issued under the old one no longer decrypt,
+     * and the id/token cache starts empty with the new key.
+     */
+    public static void setSecretKey(String secretKey) {
+        state = new KeyState(secretKey);
+    }
+
+    static int cacheCapacity() {
+        return state.cache.capacity();
+    }
+
+    // ==================== LEGACY AES TOKENS ====================
+
+    private static int decryptLegacy(KeyState current, String encryptedId) throws GeneralSecurityException {
+        IdTokenCache.Entry cached = current.cache.entry(encryptedId);
+        if (cached != null) {
+            return cached.id;
+        }
+
+        if (encryptedId.length() != LEGACY_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Not an encrypted ID: " + encryptedId);
+        }
+
+        LegacyCodec codec = acquireLegacy(current);
+        try {
+            int id = codec.decrypt(encryptedId);
+            current.cache.putToken(id, encryptedId);
+            return id;
+        } finally {
+            LEGACY_CODECS.offer(codec);
         }
     }
 
+    private static LegacyCodec acquireLegacy(KeyState current) throws GeneralSecurityException {
+        LegacyCodec codec;
+        while ((codec = LEGACY_CODECS.poll()) != null) {
+            if (codec.key == current.legacyKey) {
+                return codec;
+            }
+            // Initialised with a previous key; let it go
+        }
+        return new LegacyCodec(current.legacyKey);
+    }
+
     /**
-     * Generates a secret key from the SECRET_KEY string
+     * Generates a secret key from the secret string
      */
-    private static SecretKeySpec generateKey() {
+    private static SecretKeySpec generateKey(String secret) {
         // Ensure key is exactly 16, 24, or 32 bytes for AES
-        byte[] key = SECRET_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
         byte[] paddedKey = new byte[16]; // AES-128 requires 16 bytes
 
         // Copy key bytes, pad with zeros if shorter
@@ -73,4 +154,65 @@ public class EncryptionUtil {
         return new SecretKeySpec(paddedKey, ALGORITHM);
     }
 
-}
\ No newline at end of file
+    // Everything derived from one secret, swapped together
+    private static final class KeyState {
+        final IdCodec codec;
+        final SecretKeySpec legacyKey;
+        final IdTokenCache cache = new IdTokenCache(CACHE_SIZE);
+
+        KeyState(String secret) {
+            this.codec = new IdCodec(secret);
+            this.legacyKey = generateKey(secret);
+        }
+    }
+
+    /**
+     * An initialised AES decrypt cipher plus scratch buffer; used by one caller at a time.
+     * doFinal() leaves the Cipher ready for the next message with the same key.
+     */
+    private static final class LegacyCodec {
+        private final SecretKeySpec key;
+        private final Cipher cipher = Cipher.getInstance(ALGORITHM);
+        private final byte[] digits = new byte[LEGACY_BLOCK_SIZE];
+
+        LegacyCodec(SecretKeySpec key) throws GeneralSecurityException {
+            this.key = key;
+            cipher.init(Cipher.DECRYPT_MODE, key);
+        }
+
+        int decrypt(String token) throws GeneralSecurityException {
+            byte[] encrypted = DECODER.decode(token);
+            if (encrypted.length != LEGACY_BLOCK_SIZE) {
+                throw new IllegalArgumentException("Not an encrypted ID: " + token);
+            }
+            int length = cipher.doFinal(encrypted, 0, LEGACY_BLOCK_SIZE, digits, 0);
+            return parseDecimal(digits, length);
+        }
+
+        private static int parseDecimal(byte[] in, int length) {
+            boolean negative = length > 0 && in[0] == '-';
+            int i = negative ? 1 : 0;
+            if (i >= length) {
+                throw new NumberFormatException("Empty ID");
+            }
+
+            long value = 0;
+            for (; i < length; i++) {
+                int digit = in[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Bad ID digit");
+                }
+                value = value * 10 + digit;
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    throw new NumberFormatException("ID out of range");
+                }
+            }
+
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("ID out of range");
+            }
+            return (int) value;
+        }
+    }
+}
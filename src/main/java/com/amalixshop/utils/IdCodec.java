@@ -0,0 +1,161 @@
+package com.amalixshop.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Fixed-width ID tokens.
+ *
+ * The 32-bit id and a 32-bit constant tag form one 64-bit block, which is
+ * permuted with Speck64/128 under the secret key and written as 11 URL-safe
+ * Base64 characters. Decoding reverses the permutation and rejects any token
+ * whose tag doesn't come back, so random or edited tokens fail instead of
+ * naming some other row.
+ *
+ * Encoding and decoding work on primitives; round keys are computed once per
+ * key.
+ */
+public final class IdCodec {
+
+    public static final int TOKEN_LENGTH = 11;
+
+    private static final int ROUNDS = 27;
+    private static final int TAG = 0x414d5831;   // "AMX1"
+
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private final int[] roundKeys = new int[ROUNDS];
+
+    /**
+     * @param secret the application secret; the Speck key is derived from it
+     *               so it is not the same key material the legacy AES tokens use
+     */
+    public IdCodec(String secret) {
+        this(deriveKey(secret));
+    }
+
+    // Raw 16-byte Speck key
+    IdCodec(byte[] key) {
+        int k = littleEndian(key, 0);
+        int l0 = littleEndian(key, 4);
+        int l1 = littleEndian(key, 8);
+        int l2 = littleEndian(key, 12);
+
+        // Speck key schedule: l[i + 3] = (k[i] + ror(l[i], 8)) ^ i, k[i + 1] = rol(k[i], 3) ^ l[i + 3]
+        int[] l = new int[ROUNDS + 2];
+        l[0] = l0;
+        l[1] = l1;
+        l[2] = l2;
+        roundKeys[0] = k;
+        for (int i = 0; i < ROUNDS - 1; i++) {
+            l[i + 3] = (roundKeys[i] + Integer.rotateRight(l[i], 8)) ^ i;
+            roundKeys[i + 1] = Integer.rotateLeft(roundKeys[i], 3) ^ l[i + 3];
+        }
+    }
+
+    // Write the token for id into dst at offset
+    private void encode(int id, char[] dst, int offset) {
+        long block = encryptBlock(((long) TAG << 32) | (id & 0xffffffffL));
+        // 64 bits as 11 sextets, most significant first (the first one carries 4 bits)
+        for (int i = TOKEN_LENGTH - 1; i >= 0; i--) {
+            dst[offset + i] = ALPHABET[(int) (block & 63)];
+            block >>>= 6;
+        }
+    }
+
+    public String encode(int id) {
+        char[] token = new char[TOKEN_LENGTH];
+        encode(id, token, 0);
+        return new String(token);
+    }
+
+    /**
+     * Read the token at src[offset, offset + TOKEN_LENGTH).
+     * @throws IllegalArgumentException if it isn't a token made with this key
+     */
+    public int decode(CharSequence src, int offset) {
+        if (src.length() - offset < TOKEN_LENGTH) {
+            throw new IllegalArgumentException("ID token too short");
+        }
+        long block = 0;
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            block = (block << 6) | sextet(src.charAt(offset + i), i);
+        }
+        return open(block);
+    }
+
+    private static int sextet(char c, int position) {
+        int value = c < 128 ? VALUES[c] : -1;
+        // The leading character only carries the top 4 bits
+        if (value < 0 || (position == 0 && value > 15)) {
+            throw new IllegalArgumentException("Not an ID token");
+        }
+        return value;
+    }
+
+    private int open(long block) {
+        long plain = decryptBlock(block);
+        if ((int) (plain >>> 32) != TAG) {
+            throw new IllegalArgumentException("Not an ID token");
+        }
+        return (int) plain;
+    }
+
+    /**
+     * Cheap shape check, used to tell these tokens from legacy ones.
+     */
+    public static boolean isToken(CharSequence token) {
+        return token.length() == TOKEN_LENGTH;
+    }
+
+    // ==================== SPECK64/128 ====================
+
+    private long encryptBlock(long block) {
+        int x = (int) (block >>> 32);
+        int y = (int) block;
+        for (int i = 0; i < ROUNDS; i++) {
+            x = (Integer.rotateRight(x, 8) + y) ^ roundKeys[i];
+            y = Integer.rotateLeft(y, 3) ^ x;
+        }
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private long decryptBlock(long block) {
+        int x = (int) (block >>> 32);
+        int y = (int) block;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            y = Integer.rotateRight(y ^ x, 3);
+            x = Integer.rotateLeft((x ^ roundKeys[i]) - y, 8);
+        }
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static byte[] deriveKey(String secret) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update("amalixshop-id-token".getBytes(StandardCharsets.UTF_8));
+            byte[] digest = sha.digest(secret.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static int littleEndian(byte[] b, int offset) {
+        return (b[offset] & 0xff)
+                | (b[offset + 1] & 0xff) << 8
+                | (b[offset + 2] & 0xff) << 16
+                | (b[offset + 3] & 0xff) << 24;
+    }
+}
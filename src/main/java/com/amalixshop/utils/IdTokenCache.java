@@ -0,0 +1,169 @@
+package com.amalixshop.utils;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memo of id &lt;-&gt; token pairs in front of {@link EncryptionUtil}.
+ *
+ * Two direct-mapped tables, one keyed by id and one by token, each holding
+ * immutable entries. A lookup is one array read; a new pair simply overwrites
+ * whatever shared its slot, so the cache is bounded by construction and needs
+ * no locks or eviction thread. An instance belongs to exactly one key:
+ * EncryptionUtil swaps in a fresh cache together with a new key, so a token
+ * made with an old key is never returned.
+ *
+ * Hit and miss counts are shared by all instances and exposed over JMX as
+ * com.amalixshop:type=IdTokenCache.
+ */
+final class IdTokenCache {
+
+    private static final LongAdder ENCRYPT_HITS = new LongAdder();
+    private static final LongAdder ENCRYPT_MISSES = new LongAdder();
+    private static final LongAdder DECRYPT_HITS = new LongAdder();
+    private static final LongAdder DECRYPT_MISSES = new LongAdder();
+
+    private final Entry[] byId;
+    private final Entry[] byToken;
+    private final int mask;
+
+    /**
+     * @param capacity slots per direction, rounded up to a power of two; 0 disables caching
+     */
+    IdTokenCache(int capacity) {
+        int size = capacity <= 0 ? 0 : Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.byId = new Entry[size];
+        this.byToken = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    int capacity() {
+        return byId.length;
+    }
+
+    /**
+     * @return the cached token for id, or null
+     */
+    String token(int id) {
+        if (byId.length == 0) {
+            return null;
+        }
+        Entry entry = byId[spread(id) & mask];
+        if (entry != null && entry.id == id) {
+            ENCRYPT_HITS.increment();
+            return entry.token;
+        }
+        ENCRYPT_MISSES.increment();
+        return null;
+    }
+
+    /**
+     * @return the cached entry for token, or null
+     */
+    Entry entry(String token) {
+        if (byToken.length == 0) {
+            return null;
+        }
+        Entry entry = byToken[spread(token.hashCode()) & mask];
+        if (entry != null && entry.token.equals(token)) {
+            DECRYPT_HITS.increment();
+            return entry;
+        }
+        DECRYPT_MISSES.increment();
+        return null;
+    }
+
+    void put(int id, String token) {
+        if (byId.length == 0) {
+            return;
+        }
+        Entry entry = new Entry(id, token);
+        byId[spread(id) & mask] = entry;
+        byToken[spread(token.hashCode()) & mask] = entry;
+    }
+
+    /**
+     * Cache a decrypted token for the token -> id direction only. Base64 has more
+     * than one spelling of the same bytes, so a token that came in from outside
+     * is not necessarily the one encrypt() would produce for that id.
+     */
+    void putToken(int id, String token) {
+        if (byToken.length == 0) {
+            return;
+        }
+        byToken[spread(token.hashCode()) & mask] = new Entry(id, token);
+    }
+
+    // Sequential ids would otherwise fill the table in order and collide in runs
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static final class Entry {
+        final int id;
+        final String token;
+
+        Entry(int id, String token) {
+            this.id = id;
+            this.token = token;
+        }
+    }
+
+    // ==================== METRICS ====================
+
+    static void registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.amalixshop:type=IdTokenCache");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Stats(), objectName);
+            }
+        } catch (Exception e) {
+            AppLogger.getLogger(IdTokenCache.class).error("Could not register id token cache MBean: {}", e.getMessage());
+        }
+    }
+
+    static final class Stats implements IdTokenCacheMXBean {
+
+        @Override
+        public int getCapacity() {
+            return EncryptionUtil.cacheCapacity();
+        }
+
+        @Override
+        public long getEncryptHits() {
+            return ENCRYPT_HITS.sum();
+        }
+
+        @Override
+        public long getEncryptMisses() {
+            return ENCRYPT_MISSES.sum();
+        }
+
+        @Override
+        public long getDecryptHits() {
+            return DECRYPT_HITS.sum();
+        }
+
+        @Override
+        public long getDecryptMisses() {
+            return DECRYPT_MISSES.sum();
+        }
+
+        @Override
+        public double getHitRatio() {
+            long hits = ENCRYPT_HITS.sum() + DECRYPT_HITS.sum();
+            long total = hits + ENCRYPT_MISSES.sum() + DECRYPT_MISSES.sum();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public void resetCounters() {
+            ENCRYPT_HITS.reset();
+            ENCRYPT_MISSES.reset();
+            DECRYPT_HITS.reset();
+            DECRYPT_MISSES.reset();
+        }
+    }
+}
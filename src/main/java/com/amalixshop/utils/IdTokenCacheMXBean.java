@@ -0,0 +1,25 @@
+package com.amalixshop.utils;
+
+/**
+ * JMX view of the id/token memo cache used by {@link EncryptionUtil}.
+ * Registered as com.amalixshop:type=IdTokenCache
+ */
+public interface IdTokenCacheMXBean {
+
+    /**
+     * Slots per direction (id to token, token to id).
+     */
+    int getCapacity();
+
+    long getEncryptHits();
+
+    long getEncryptMisses();
+
+    long getDecryptHits();
+
+    long getDecryptMisses();
+
+    double getHitRatio();
+
+    void resetCounters();
+}
@@ -4,6 +4,7 @@ import com.amalixshop.controllers.CartController;
 import com.amalixshop.controllers.DashboardController;
 import com.amalixshop.controllers.OrderConfirmationController;
 import com.amalixshop.controllers.OrdersController;
+import com.amalixshop.services.WarmupService;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -14,6 +15,7 @@ import java.io.IOException;
 import java.net.URL;
 
 public class NavigationUtil {
+    private static final AppLogger LOG = AppLogger.getLogger(NavigationUtil.class);
 
     public static void navigateToLogin(Stage stage) {
         navigateTo("com/amalixshop/LoginView.fxml", stage, "Login", 450, 400);
@@ -24,41 +26,57 @@ public class NavigationUtil {
     }
 
     public static void navigateToDashboard(Stage stage, String encryptedId) {
-        try {
-            URL fxmlUrl = NavigationUtil.class.getClassLoader().getResource("com/amalixshop/DashboardView.fxml");
+        WarmupService warmup = WarmupService.getInstance();
+        warmup.markDashboardRequested();
 
-            if (fxmlUrl == null) {
-                System.err.println("FXML not found: com/amalixshop/DashboardView.fxml");
-                return;
+        try {
+            // Parsed in the background during startup when available
+            FXMLLoader loader = warmup.takePreloadedDashboard();
+            Parent root;
+            boolean loading = loader != null;
+
+            if (loading) {
+                // Already loading its data
+                root = loader.getRoot();
+            } else {
+                URL fxmlUrl = NavigationUtil.class.getClassLoader().getResource("com/amalixshop/DashboardView.fxml");
+
+                if (fxmlUrl == null) {
+                    LOG.error("FXML not found: com/amalixshop/DashboardView.fxml");
+                    return;
+                }
+
+                loader = new FXMLLoader(fxmlUrl);
+                root = loader.load();
             }
 
-            FXMLLoader loader = new FXMLLoader(fxmlUrl);
-            Parent root = loader.load();
-
             // Get the controller and set the customer ID
             DashboardController controller = loader.getController();
             controller.setCurrentCustomerId(encryptedId);
+            if (!loading) {
+                controller.startLoading();
+            }
 
             stage.setTitle("AmaliXShop - Home");
             Scene scene = new Scene(root);
             stage.setScene(scene);
             stage.setMaximized(true);
             stage.show();
+            warmup.markDashboardShown();
 
         } catch (Exception e) {
-            System.err.println("Navigation to dashboard failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Navigation to dashboard failed: {}", e.getMessage(), e);
         }
     }
     public static void navigateToCart(Stage stage, String encryptedId) {
-        System.out.println("Navigating to cart...");
+        LOG.debug("Navigating to cart...");
 
         try {
             URL fxmlUrl = NavigationUtil.class.getClassLoader().getResource("com/amalixshop/Cart.fxml");
-            System.out.println("FXML URL: " + fxmlUrl);
+            LOG.debug("FXML URL: {}", fxmlUrl);
 
             if (fxmlUrl == null) {
-                System.err.println("ERROR: Cart.fxml not found!");
+                LOG.error("ERROR: Cart.fxml not found!");
                 return;
             }
 
@@ -66,7 +84,7 @@ public class NavigationUtil {
             Parent root = loader.load();
 
             CartController controller = loader.getController();
-            System.out.println("Controller loaded: " + controller);
+            LOG.debug("Controller loaded: {}", controller);
 
             if (controller != null && encryptedId != null) {
                 controller.setCurrentCustomerId(encryptedId);
@@ -78,11 +96,10 @@ public class NavigationUtil {
             stage.setMaximized(true);
             stage.show();
 
-            System.out.println("Navigation successful!");
+            LOG.debug("Navigation successful!");
 
         } catch (Exception e) {
-            System.err.println("Navigation failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Navigation failed: {}", e.getMessage(), e);
         }
     }
 
@@ -114,8 +131,7 @@ public class NavigationUtil {
             stage.setTitle("Order Confirmation - AmaliXShop");
             stage.show();
         } catch (IOException e) {
-            System.err.println("Error loading order confirmation: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading order confirmation: {}", e.getMessage(), e);
         }
     }
 
@@ -132,8 +148,7 @@ public class NavigationUtil {
             stage.setTitle("My Orders - AmaliXShop");
             stage.show();
         } catch (IOException e) {
-            System.err.println("Error loading orders page: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error loading orders page: {}", e.getMessage(), e);
 
             // Fallback
             Alert alert = new Alert(Alert.AlertType.ERROR);
@@ -150,7 +165,7 @@ public class NavigationUtil {
             URL fxmlUrl = NavigationUtil.class.getClassLoader().getResource(fxmlPath);
 
             if (fxmlUrl == null) {
-                System.err.println("FXML not found: " + fxmlPath);
+                LOG.error("FXML not found: {}", fxmlPath);
                 return;
             }
 
@@ -163,8 +178,7 @@ public class NavigationUtil {
             stage.show();
 
         } catch (Exception e) {
-            System.err.println("Navigation failed: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Navigation failed: {}", e.getMessage(), e);
         }
     }
 }
\ No newline at end of file
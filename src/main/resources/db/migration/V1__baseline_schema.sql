@@ -0,0 +1,81 @@
+-- Baseline schema. Uses IF NOT EXISTS throughout so it can be recorded against
+-- databases that were set up by hand before migrations existed.
+
+CREATE TABLE IF NOT EXISTS customers (
+    customer_id   SERIAL PRIMARY KEY,
+    customer_name VARCHAR(100) NOT NULL,
+    email         VARCHAR(255) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    phone         VARCHAR(50),
+    address       TEXT,
+    role          VARCHAR(20)  NOT NULL DEFAULT 'user',
+    created_at    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    category_id   SERIAL PRIMARY KEY,
+    category_name VARCHAR(100) NOT NULL,
+    description   TEXT
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    product_id   SERIAL PRIMARY KEY,
+    product_name VARCHAR(255)   NOT NULL,
+    description  TEXT,
+    price        NUMERIC(10, 2) NOT NULL CHECK (price >= 0),
+    category_id  INTEGER        REFERENCES categories (category_id),
+    created_at   TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS inventory (
+    inventory_id   SERIAL PRIMARY KEY,
+    product_id     INTEGER   NOT NULL REFERENCES products (product_id) ON DELETE CASCADE,
+    stock_quantity INTEGER   NOT NULL DEFAULT 0,
+    last_updated   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS carts (
+    cart_id     SERIAL PRIMARY KEY,
+    customer_id INTEGER   NOT NULL REFERENCES customers (customer_id) ON DELETE CASCADE,
+    created_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS cart_items (
+    cart_item_id SERIAL PRIMARY KEY,
+    cart_id      INTEGER   NOT NULL REFERENCES carts (cart_id) ON DELETE CASCADE,
+    product_id   INTEGER   NOT NULL REFERENCES products (product_id) ON DELETE CASCADE,
+    quantity     INTEGER   NOT NULL CHECK (quantity > 0),
+    added_at     TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (cart_id, product_id)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    order_id         SERIAL PRIMARY KEY,
+    customer_id      INTEGER        NOT NULL REFERENCES customers (customer_id),
+    order_date       TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    total_amount     NUMERIC(10, 2) NOT NULL DEFAULT 0,
+    shipping_address TEXT,
+    billing_address  TEXT,
+    payment_method   VARCHAR(50),
+    status           VARCHAR(50)    NOT NULL DEFAULT 'pending',
+    payment_status   VARCHAR(50)    NOT NULL DEFAULT 'pending',
+    notes            TEXT
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    order_item_id SERIAL PRIMARY KEY,
+    order_id      INTEGER        NOT NULL REFERENCES orders (order_id) ON DELETE CASCADE,
+    product_id    INTEGER        NOT NULL REFERENCES products (product_id),
+    quantity      INTEGER        NOT NULL CHECK (quantity > 0),
+    unit_price    NUMERIC(10, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS reviews (
+    review_id   SERIAL PRIMARY KEY,
+    product_id  INTEGER   NOT NULL REFERENCES products (product_id) ON DELETE CASCADE,
+    customer_id INTEGER   NOT NULL REFERENCES customers (customer_id) ON DELETE CASCADE,
+    rating      INTEGER   NOT NULL CHECK (rating BETWEEN 1 AND 5),
+    comment     TEXT,
+    review_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
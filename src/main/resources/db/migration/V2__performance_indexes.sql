@@ -0,0 +1,27 @@
+-- migration: no-transaction
+-- Indexes behind the hot DAO queries. Built CONCURRENTLY so existing installs
+-- keep taking writes while they are created.
+
+-- CartDAO.getCartItems: WHERE cart_id = ? ORDER BY added_at DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cart_items_cart_added
+    ON cart_items (cart_id, added_at DESC);
+
+-- Every cart operation starts from the customer's cart
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_carts_customer
+    ON carts (customer_id);
+
+-- OrderDAO order detail / item lists
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_order
+    ON order_items (order_id);
+
+-- Order history: WHERE customer_id = ? ORDER BY order_date DESC
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_customer_date
+    ON orders (customer_id, order_date DESC);
+
+-- Category filters and the products/categories join
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_category
+    ON products (category_id);
+
+-- Stock lookups and the products/inventory join
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_inventory_product
+    ON inventory (product_id);
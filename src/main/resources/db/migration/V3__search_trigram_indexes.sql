@@ -0,0 +1,15 @@
+-- migration: no-transaction
+-- Trigram indexes so ProductDAO.searchProducts' LOWER(...) LIKE '%term%'
+-- filters can use an index instead of scanning every product.
+-- Needs the pg_trgm extension (contrib, CREATE privilege on the database).
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_name_trgm
+    ON products USING GIN (LOWER(product_name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_description_trgm
+    ON products USING GIN (LOWER(description) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_categories_name_trgm
+    ON categories USING GIN (LOWER(category_name) gin_trgm_ops);
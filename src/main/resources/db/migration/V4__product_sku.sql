@@ -0,0 +1,6 @@
+-- Supplier SKU, the key bulk imports match existing products on.
+-- Products added by hand keep a NULL sku; a unique index allows any number of those.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS sku VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_products_sku ON products (sku);
@@ -0,0 +1,13 @@
+-- migration: no-transaction
+-- One index per dashboard sort, each ending in product_id, so
+-- ProductDAO.getProductPage can seek straight to (sort key, product_id) > cursor
+-- and read just one page. Descending sorts scan these backwards.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_price_id
+    ON products (price, product_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_lower_name_id
+    ON products (LOWER(product_name), product_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_created_id
+    ON products (created_at, product_id);
@@ -0,0 +1,45 @@
+-- migration: no-transaction
+-- Full-text search over products: a weighted tsvector kept up to date by
+-- triggers, and a GIN index for ProductDAO's @@ queries.
+-- Weights: name A, category name B, description C. The 'simple' configuration
+-- (no stemming) keeps prefix matches like 'lapt:*' predictable.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION products_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('simple', COALESCE(NEW.product_name, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(
+            (SELECT category_name FROM categories WHERE category_id = NEW.category_id), '')), 'B') ||
+        setweight(to_tsvector('simple', COALESCE(NEW.description, '')), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_products_search_vector ON products;
+
+CREATE TRIGGER trg_products_search_vector
+    BEFORE INSERT OR UPDATE OF product_name, description, category_id ON products
+    FOR EACH ROW EXECUTE FUNCTION products_search_vector_update();
+
+-- Renaming a category re-indexes its products (touching category_id fires the trigger above)
+CREATE OR REPLACE FUNCTION categories_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    UPDATE products SET category_id = category_id WHERE category_id = NEW.category_id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_categories_search_vector ON categories;
+
+CREATE TRIGGER trg_categories_search_vector
+    AFTER UPDATE OF category_name ON categories
+    FOR EACH ROW WHEN (OLD.category_name IS DISTINCT FROM NEW.category_name)
+    EXECUTE FUNCTION categories_search_vector_update();
+
+-- Existing rows
+UPDATE products SET product_name = product_name WHERE search_vector IS NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_search_vector
+    ON products USING GIN (search_vector);
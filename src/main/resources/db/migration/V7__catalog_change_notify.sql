@@ -0,0 +1,52 @@
+-- Catalog change feed: every committed change to a product, its stock or a
+-- category is announced on the 'catalog_changes' channel, so running clients
+-- (CatalogChangeFeed) can update their in-memory catalog without reloading it.
+-- Payload: '<table>:<op>:<id>', e.g. 'products:UPDATE:42'; the id is
+-- product_id for products and inventory, category_id for categories.
+-- Notifications are delivered on commit, and identical payloads within one
+-- transaction are sent once.
+
+CREATE OR REPLACE FUNCTION notify_catalog_change() RETURNS trigger AS $$
+DECLARE
+    changed RECORD;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        changed := OLD;
+    ELSE
+        changed := NEW;
+    END IF;
+    -- TG_ARGV[0] names the id column, so one function serves all three tables
+    PERFORM pg_notify('catalog_changes',
+        TG_TABLE_NAME || ':' || TG_OP || ':' || (to_jsonb(changed) ->> TG_ARGV[0]));
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_products_notify ON products;
+
+CREATE TRIGGER trg_products_notify
+    AFTER INSERT OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION notify_catalog_change('product_id');
+
+-- search_vector alone changing (re-indexing after a category rename) is not news;
+-- the category notification covers it
+DROP TRIGGER IF EXISTS trg_products_notify_update ON products;
+
+CREATE TRIGGER trg_products_notify_update
+    AFTER UPDATE ON products
+    FOR EACH ROW
+    WHEN ((OLD.product_name, OLD.description, OLD.price, OLD.category_id)
+          IS DISTINCT FROM (NEW.product_name, NEW.description, NEW.price, NEW.category_id))
+    EXECUTE FUNCTION notify_catalog_change('product_id');
+
+DROP TRIGGER IF EXISTS trg_inventory_notify ON inventory;
+
+CREATE TRIGGER trg_inventory_notify
+    AFTER INSERT OR DELETE OR UPDATE OF stock_quantity ON inventory
+    FOR EACH ROW EXECUTE FUNCTION notify_catalog_change('product_id');
+
+DROP TRIGGER IF EXISTS trg_categories_notify ON categories;
+
+CREATE TRIGGER trg_categories_notify
+    AFTER INSERT OR UPDATE OR DELETE ON categories
+    FOR EACH ROW EXECUTE FUNCTION notify_catalog_change('category_id');
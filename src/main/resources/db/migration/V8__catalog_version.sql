@@ -0,0 +1,87 @@
+-- Catalog version stamps, so a client holding a saved copy of the catalog
+-- (ProductSearchService snapshot) can fetch just what changed since.
+-- Every insert or update of a product, and every stock change, stamps the
+-- product with the 64-bit id of the writing transaction; deleted products
+-- leave a tombstone stamped the same way. A category rename touches its
+-- products (V6), so they are re-stamped too.
+--
+-- Transaction ids, not a sequence: a sequence value is taken when the row is
+-- written, so a transaction that commits after a later one would slip in below
+-- a reader's high-water mark. Readers instead use the oldest transaction still
+-- running as their mark (ProductDAO.getCatalogVersion) and fetch from it,
+-- inclusive; anything below it has committed or rolled back.
+
+-- Added without a default and backfilled: a volatile default would rewrite
+-- the whole table while holding its lock
+ALTER TABLE products ADD COLUMN IF NOT EXISTS catalog_version BIGINT;
+
+UPDATE products SET catalog_version = pg_current_xact_id()::text::bigint WHERE catalog_version IS NULL;
+
+ALTER TABLE products ALTER COLUMN catalog_version SET DEFAULT pg_current_xact_id()::text::bigint;
+
+ALTER TABLE products ALTER COLUMN catalog_version SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_products_catalog_version ON products (catalog_version);
+
+CREATE TABLE IF NOT EXISTS product_deletions (
+    product_id      INTEGER NOT NULL,
+    catalog_version BIGINT  NOT NULL DEFAULT pg_current_xact_id()::text::bigint
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_deletions_version ON product_deletions (catalog_version);
+
+-- The catalog version each client's saved snapshot is at, refreshed whenever
+-- it saves one. Tombstones at or above the oldest recent one are kept.
+CREATE TABLE IF NOT EXISTS catalog_sync_clients (
+    client_id       VARCHAR(36) PRIMARY KEY,
+    catalog_version BIGINT      NOT NULL,
+    seen_at         TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Tombstones below pruned_before are gone; a client behind it reloads in full
+CREATE TABLE IF NOT EXISTS catalog_sync_horizon (
+    id            BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    pruned_before BIGINT  NOT NULL
+);
+
+INSERT INTO catalog_sync_horizon (pruned_before) VALUES (0) ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION products_stamp_version() RETURNS trigger AS $$
+BEGIN
+    NEW.catalog_version := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_products_stamp_version ON products;
+
+CREATE TRIGGER trg_products_stamp_version
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_stamp_version();
+
+CREATE OR REPLACE FUNCTION products_record_deletion() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO product_deletions (product_id) VALUES (OLD.product_id);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_products_record_deletion ON products;
+
+CREATE TRIGGER trg_products_record_deletion
+    AFTER DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_record_deletion();
+
+-- Stock is part of the summary, so a stock change re-stamps its product
+CREATE OR REPLACE FUNCTION inventory_stamp_product() RETURNS trigger AS $$
+BEGIN
+    UPDATE products SET catalog_version = catalog_version WHERE product_id = NEW.product_id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_inventory_stamp_product ON inventory;
+
+CREATE TRIGGER trg_inventory_stamp_product
+    AFTER INSERT OR UPDATE OF stock_quantity ON inventory
+    FOR EACH ROW EXECUTE FUNCTION inventory_stamp_product();